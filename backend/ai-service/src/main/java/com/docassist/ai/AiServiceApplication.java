@@ -1,9 +1,14 @@
 package com.docassist.ai;
 
+import com.docassist.ai.provider.ProviderProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.docassist.ai", "com.docassist.common"})
+@EnableConfigurationProperties(ProviderProperties.class)
+@EnableScheduling
 public class AiServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AiServiceApplication.class, args);
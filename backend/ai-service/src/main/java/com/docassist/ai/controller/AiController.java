@@ -1,14 +1,21 @@
 package com.docassist.ai.controller;
 
 import com.docassist.ai.dto.*;
+import com.docassist.ai.entity.SourceChunk;
 import com.docassist.ai.service.ChatService;
 import com.docassist.common.dto.ApiResponse;
+import com.docassist.common.dto.PagedResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.UUID;
@@ -30,21 +37,61 @@ public class AiController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Ask a question and stream the answer as server-sent events")
+    public Flux<ServerSentEvent<ChatStreamEvent>> chatStream(
+            @Valid @RequestBody ChatRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+        return chatService.streamChat(request, UUID.fromString(userId));
+    }
+
+    @PostMapping(value = "/chat/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Answer a list of questions, streaming each answer as NDJSON when it completes")
+    public Flux<BatchChatAnswer> chatBatch(
+            @Valid @RequestBody BatchChatRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+        return chatService.answerBatch(request, UUID.fromString(userId));
+    }
+
+    @PostMapping("/search")
+    @Operation(summary = "Find the most relevant passages without generating an answer")
+    public ResponseEntity<ApiResponse<List<SourceChunk>>> search(
+            @Valid @RequestBody SearchRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+        List<SourceChunk> sources = chatService.search(request, UUID.fromString(userId));
+        return ResponseEntity.ok(ApiResponse.success(sources));
+    }
+
     @GetMapping("/sessions")
     @Operation(summary = "List chat sessions")
-    public ResponseEntity<ApiResponse<List<ChatSessionResponse>>> getSessions(
-            @RequestHeader("X-User-Id") String userId) {
-        List<ChatSessionResponse> sessions = chatService.getUserSessions(UUID.fromString(userId));
-        return ResponseEntity.ok(ApiResponse.success(sessions));
+    public ResponseEntity<ApiResponse<PagedResponse<ChatSessionResponse>>> getSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader("X-User-Id") String userId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(chatService.getUserSessionsETag(UUID.fromString(userId), cursor, size))) {
+            return null;
+        }
+        PagedResponse<ChatSessionResponse> sessions = chatService.getUserSessions(UUID.fromString(userId), cursor, size);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(ApiResponse.success(sessions));
     }
 
     @GetMapping("/sessions/{id}")
     @Operation(summary = "Get chat session messages")
-    public ResponseEntity<ApiResponse<List<ChatMessageResponse>>> getSession(
+    public ResponseEntity<ApiResponse<PagedResponse<ChatMessageResponse>>> getSession(
             @PathVariable UUID id,
-            @RequestHeader("X-User-Id") String userId) {
-        List<ChatMessageResponse> messages = chatService.getSessionMessages(id, UUID.fromString(userId));
-        return ResponseEntity.ok(ApiResponse.success(messages));
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeSnippets,
+            @RequestHeader("X-User-Id") String userId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(chatService.getSessionMessagesETag(
+                id, UUID.fromString(userId), cursor, size, includeSnippets))) {
+            return null;
+        }
+        PagedResponse<ChatMessageResponse> messages = chatService.getSessionMessages(
+                id, UUID.fromString(userId), cursor, size, includeSnippets);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(ApiResponse.success(messages));
     }
 
     @DeleteMapping("/sessions/{id}")
@@ -0,0 +1,22 @@
+package com.docassist.ai.dto;
+
+import com.docassist.ai.entity.SourceChunk;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchChatAnswer {
+    private int index;
+    private String question;
+    private String answer;
+    private List<SourceChunk> sources;
+    private Integer promptTokens;
+    private String error;
+}
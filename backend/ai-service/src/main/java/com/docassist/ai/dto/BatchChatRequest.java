@@ -0,0 +1,23 @@
+package com.docassist.ai.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchChatRequest {
+
+    @NotEmpty(message = "At least one question is required")
+    @Size(max = 200, message = "At most 200 questions per batch")
+    private List<@NotBlank(message = "Questions must not be blank") String> questions;
+
+    private UUID documentId;
+}
@@ -17,4 +17,5 @@ public class ChatResponse {
     private UUID sessionId;
     private String answer;
     private List<SourceChunk> sources;
+    private Integer promptTokens;
 }
@@ -0,0 +1,22 @@
+package com.docassist.ai.dto;
+
+import com.docassist.ai.entity.SourceChunk;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatStreamEvent {
+    private UUID sessionId;
+    private UUID messageId;
+    private String content;
+    private List<SourceChunk> sources;
+    private Integer promptTokens;
+}
@@ -0,0 +1,19 @@
+package com.docassist.ai.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchRequest {
+
+    @NotBlank(message = "Query is required")
+    private String query;
+
+    private UUID documentId;
+}
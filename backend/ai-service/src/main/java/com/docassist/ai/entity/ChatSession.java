@@ -2,6 +2,7 @@ package com.docassist.ai.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -31,6 +32,11 @@ public class ChatSession {
     @Column
     private String title;
 
+    @Column(name = "message_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int messageCount = 0;
+
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<ChatMessage> messages = new ArrayList<>();
@@ -2,13 +2,18 @@ package com.docassist.ai.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "chunk_embeddings", schema = "ai_db")
+@Table(name = "chunk_embeddings", schema = "ai_db",
+        indexes = {
+                @Index(name = "idx_chunk_embeddings_document_chunk", columnList = "document_id, chunk_index"),
+                @Index(name = "idx_chunk_embeddings_chunk_version", columnList = "chunk_id, model_version")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,13 +31,21 @@ public class ChunkEmbedding {
     @Column(name = "document_id", nullable = false)
     private UUID documentId;
 
+    @Column(name = "chunk_index")
+    private Integer chunkIndex;
+
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
     @Column(columnDefinition = "TEXT")
     private String content;
 
-    @Column(name = "embedding", columnDefinition = "vector(1536)")
+    @Column(name = "model_version", nullable = false)
+    @ColumnDefault("'text-embedding-3-small'")
+    private String modelVersion;
+
+    // Untyped so versions with different dimensions can coexist during a migration.
+    @Column(name = "embedding", columnDefinition = "vector")
     private String embedding;
 
     @CreationTimestamp
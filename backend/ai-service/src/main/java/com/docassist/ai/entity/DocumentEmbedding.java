@@ -0,0 +1,54 @@
+package com.docassist.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Centroid of a document's chunk vectors for one embedding version, used to shortlist
+// documents before chunk search.
+@Entity
+@Table(name = "document_embeddings", schema = "ai_db",
+        indexes = @Index(name = "idx_document_embeddings_user", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(DocumentEmbedding.Key.class)
+public class DocumentEmbedding {
+
+    @Id
+    @Column(name = "document_id")
+    private UUID documentId;
+
+    @Id
+    @Column(name = "model_version")
+    @ColumnDefault("'text-embedding-3-small'")
+    private String modelVersion;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "centroid", columnDefinition = "vector")
+    private String centroid;
+
+    @Column(name = "chunk_count", nullable = false)
+    private int chunkCount;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID documentId;
+        private String modelVersion;
+    }
+}
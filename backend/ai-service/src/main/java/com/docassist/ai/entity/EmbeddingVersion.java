@@ -0,0 +1,45 @@
+package com.docassist.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "embedding_versions", schema = "ai_db")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmbeddingVersion {
+
+    @Id
+    @Column(name = "version")
+    private String version;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(nullable = false)
+    private int dimensions;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmbeddingVersionStatus status;
+
+    // Only the instance holding the lease runs the re-embedding worker for this version.
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "activated_at")
+    private LocalDateTime activatedAt;
+}
@@ -0,0 +1,7 @@
+package com.docassist.ai.entity;
+
+public enum EmbeddingVersionStatus {
+    ACTIVE,
+    MIGRATING,
+    RETIRED
+}
@@ -1,5 +1,6 @@
 package com.docassist.ai.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,9 +13,15 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SourceChunk implements Serializable {
     private UUID chunkId;
     private UUID documentId;
     private String content;
     private double score;
+
+    // Chat history stores only the reference; the snippet is read back from the chunk store on request.
+    public SourceChunk reference() {
+        return new SourceChunk(chunkId, documentId, null, score);
+    }
 }
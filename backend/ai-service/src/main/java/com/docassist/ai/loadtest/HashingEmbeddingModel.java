@@ -0,0 +1,106 @@
+package com.docassist.ai.loadtest;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Deterministic stand-in for the embedding provider. Every word contributes a pseudo-random
+// direction seeded by the hash of the word, so identical texts embed identically and texts
+// sharing vocabulary land close together, which keeps score thresholds meaningful under load.
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+    private final LatencyDistribution latency;
+
+    public HashingEmbeddingModel(int dimensions, LatencyDistribution latency) {
+        this.dimensions = dimensions;
+        this.latency = latency;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        LatencyDistribution.sleep(latency.sample());
+        List<String> texts = request.getInstructions();
+        Integer requested = request.getOptions() != null ? request.getOptions().getDimensions() : null;
+        int size = requested != null ? requested : dimensions;
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(vector(texts.get(i), size), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    float[] vector(String text) {
+        return vector(text, dimensions);
+    }
+
+    private float[] vector(String text, int size) {
+        float[] vector = new float[size];
+        String[] words = text.toLowerCase(Locale.ROOT).split("\\W+");
+        boolean empty = true;
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                addDirection(vector, seed(word));
+                empty = false;
+            }
+        }
+        if (empty) {
+            addDirection(vector, seed(text));
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    private static void addDirection(float[] vector, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] += (float) random.nextDouble(-1, 1);
+        }
+    }
+
+    private static void normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) (vector[i] / norm);
+            }
+        }
+    }
+
+    static long seed(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            long seed = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                seed = (seed << 8) | (digest[i] & 0xff);
+            }
+            return seed;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
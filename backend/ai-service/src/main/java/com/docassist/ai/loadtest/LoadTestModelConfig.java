@@ -0,0 +1,39 @@
+package com.docassist.ai.loadtest;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("loadtest")
+public class LoadTestModelConfig {
+
+    @Bean
+    @Primary
+    public EmbeddingModel loadTestEmbeddingModel(
+            @Value("${app.loadtest.embedding.dimensions:1536}") int dimensions,
+            @Value("${app.loadtest.embedding.latency-median:20ms}") Duration latencyMedian,
+            @Value("${app.loadtest.embedding.latency-sigma:0.3}") double latencySigma) {
+        return new HashingEmbeddingModel(dimensions, new LatencyDistribution(latencyMedian, latencySigma));
+    }
+
+    @Bean
+    @Primary
+    public ChatModel loadTestChatModel(
+            @Value("${app.loadtest.chat.ttft-median:400ms}") Duration ttftMedian,
+            @Value("${app.loadtest.chat.ttft-sigma:0.5}") double ttftSigma,
+            @Value("${app.loadtest.chat.token-median:15ms}") Duration tokenMedian,
+            @Value("${app.loadtest.chat.token-sigma:0.3}") double tokenSigma,
+            @Value("${app.loadtest.chat.response-tokens:120}") int responseTokens) {
+        return new SimulatedChatModel(
+                new LatencyDistribution(ttftMedian, ttftSigma),
+                new LatencyDistribution(tokenMedian, tokenSigma),
+                responseTokens);
+    }
+}
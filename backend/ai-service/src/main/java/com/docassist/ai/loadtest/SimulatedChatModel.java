@@ -0,0 +1,67 @@
+package com.docassist.ai.loadtest;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Stand-in chat provider: answers with filler text derived from the prompt, paced by sampled
+// time-to-first-token and per-token delays. Streaming uses timers rather than sleeping threads,
+// so thousands of concurrent streams stay cheap.
+public class SimulatedChatModel implements ChatModel {
+
+    private static final String[] VOCABULARY = {
+            "the", "document", "states", "that", "according", "to", "section", "policy", "contract",
+            "clause", "requires", "within", "days", "party", "notice", "terms", "agreement", "shall",
+            "provide", "context", "answer", "based", "on", "information", "above", "and", "is"
+    };
+
+    private final LatencyDistribution timeToFirstToken;
+    private final LatencyDistribution timePerToken;
+    private final int responseTokens;
+
+    public SimulatedChatModel(LatencyDistribution timeToFirstToken, LatencyDistribution timePerToken,
+                              int responseTokens) {
+        this.timeToFirstToken = timeToFirstToken;
+        this.timePerToken = timePerToken;
+        this.responseTokens = responseTokens;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        List<String> tokens = tokens(prompt);
+        Duration total = timeToFirstToken.sample();
+        for (int i = 1; i < tokens.size(); i++) {
+            total = total.plus(timePerToken.sample());
+        }
+        LatencyDistribution.sleep(total);
+        return response(String.join("", tokens));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        List<String> tokens = tokens(prompt);
+        return Flux.range(0, tokens.size())
+                .concatMap(i -> Mono.just(response(tokens.get(i)))
+                        .delayElement(i == 0 ? timeToFirstToken.sample() : timePerToken.sample()));
+    }
+
+    private List<String> tokens(Prompt prompt) {
+        SplittableRandom random = new SplittableRandom(HashingEmbeddingModel.seed(prompt.getContents()));
+        return IntStream.range(0, responseTokens)
+                .mapToObj(i -> (i == 0 ? "" : " ") + VOCABULARY[random.nextInt(VOCABULARY.length)])
+                .toList();
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
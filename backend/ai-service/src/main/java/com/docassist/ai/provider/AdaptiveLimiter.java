@@ -0,0 +1,103 @@
+package com.docassist.ai.provider;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// Concurrency limit that grows by roughly one slot per window of successful calls and shrinks
+// multiplicatively on timeouts, errors and slow calls (AIMD). Callers over the limit wait in a
+// bounded queue for at most maxWait.
+class AdaptiveLimiter {
+
+    enum Admission { ACQUIRED, QUEUE_FULL, TIMED_OUT }
+
+    enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxQueue;
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, int maxQueue) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = maxQueue;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    Admission acquire(Duration maxWait) throws InterruptedException {
+        long nanos = maxWait.toNanos();
+        lock.lockInterruptibly();
+        try {
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ACQUIRED;
+            }
+            if (waiting >= maxQueue) {
+                return Admission.QUEUE_FULL;
+            }
+
+            waiting++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inFlight++;
+                return Admission.ACQUIRED;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(Outcome outcome) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (outcome == Outcome.DROPPED) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (outcome == Outcome.SUCCESS && saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        return withLock(() -> (int) limit);
+    }
+
+    int inFlight() {
+        return withLock(() -> inFlight);
+    }
+
+    int queueDepth() {
+        return withLock(() -> waiting);
+    }
+
+    private int withLock(IntSupplier read) {
+        lock.lock();
+        try {
+            return read.getAsInt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
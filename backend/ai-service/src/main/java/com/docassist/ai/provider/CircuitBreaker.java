@@ -0,0 +1,76 @@
+package com.docassist.ai.provider;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+// Opens after failureThreshold consecutive failures and rejects calls for openDuration. After
+// that a single probe call is let through; its outcome closes or re-opens the circuit.
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    // Gives back an acquired slot without an outcome, e.g. when the call was never made.
+    synchronized void release() {
+        probeInFlight = false;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            consecutiveFailures = 0;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(clock.instant(), openedAt.plus(openDuration));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
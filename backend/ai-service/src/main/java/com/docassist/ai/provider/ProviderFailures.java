@@ -0,0 +1,50 @@
+package com.docassist.ai.provider;
+
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+// Decides whether a failed call says something about the provider's health. Timeouts, transport
+// errors, 5xx and 429 do; a rejected request (400, 401, 413, an oversized context) is the
+// caller's problem and must not open the breaker or shrink the concurrency limit.
+final class ProviderFailures {
+
+    private ProviderFailures() {
+    }
+
+    static boolean isProviderFault(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof RestClientResponseException response) {
+                return isProviderFault(response.getStatusCode());
+            }
+            if (e instanceof WebClientResponseException response) {
+                return isProviderFault(response.getStatusCode());
+            }
+            // Spring AI maps 4xx responses to NonTransientAiException with the status leading the message.
+            if (e instanceof NonTransientAiException) {
+                return e.getMessage() != null
+                        && e.getMessage().startsWith(String.valueOf(HttpStatus.TOO_MANY_REQUESTS.value()));
+            }
+            if (e instanceof TransientAiException
+                    || e instanceof TimeoutException
+                    || e instanceof ResourceAccessException
+                    || e instanceof WebClientRequestException
+                    || e instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isProviderFault(HttpStatusCode status) {
+        return status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+}
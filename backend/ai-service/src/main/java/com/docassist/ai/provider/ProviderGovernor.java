@@ -0,0 +1,212 @@
+package com.docassist.ai.provider;
+
+import com.docassist.common.exception.DeadlineExceededException;
+import com.docassist.common.exception.ServiceUnavailableException;
+import com.docassist.common.web.RequestDeadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Bulkhead for one model provider endpoint: every call passes the circuit breaker, the RPM/TPM
+// buckets and the adaptive concurrency limit, and runs under a deadline. Blocking calls made for
+// a request never wait or run past that request's deadline.
+@Slf4j
+public class ProviderGovernor implements AutoCloseable {
+
+    private final String name;
+    private final ProviderProperties.Settings settings;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry registry;
+    private final Timer latency;
+
+    public ProviderGovernor(String name, ProviderProperties.Settings settings, MeterRegistry registry) {
+        this.name = name;
+        this.settings = settings;
+        this.registry = registry;
+        this.limiter = new AdaptiveLimiter(settings.initialLimit(), settings.minLimit(), settings.maxLimit(),
+                settings.backoffRatio(), settings.maxQueue());
+        this.breaker = new CircuitBreaker(settings.failureThreshold(), settings.openDuration(), Clock.systemUTC());
+        this.requestBucket = new TokenBucket(settings.requestsPerMinute(), System::nanoTime);
+        this.tokenBucket = new TokenBucket(settings.tokensPerMinute(), System::nanoTime);
+
+        Gauge.builder("ai.provider.limit", limiter, AdaptiveLimiter::limit)
+                .tag("provider", name).register(registry);
+        Gauge.builder("ai.provider.in.flight", limiter, AdaptiveLimiter::inFlight)
+                .tag("provider", name).register(registry);
+        Gauge.builder("ai.provider.queue.depth", limiter, AdaptiveLimiter::queueDepth)
+                .tag("provider", name).register(registry);
+        Gauge.builder("ai.provider.circuit.open", breaker, b -> b.state() == CircuitBreaker.State.OPEN ? 1 : 0)
+                .tag("provider", name).register(registry);
+        this.latency = Timer.builder("ai.provider.latency")
+                .tag("provider", name)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public <T> T call(int estimatedTokens, Supplier<T> call) {
+        RequestDeadline.check(name + " provider call");
+        Permit permit = admit(estimatedTokens, RequestDeadline.cap(settings.maxWait()));
+        Duration timeout = RequestDeadline.cap(settings.timeout());
+        long start = System.nanoTime();
+        Future<T> future = executor.submit(call::get);
+        try {
+            T result = future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            permit.succeed(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // Running out of the caller's time says nothing about the provider's health.
+            if (timeout.compareTo(settings.timeout()) < 0) {
+                permit.release();
+                registry.counter("ai.provider.deadline.exceeded", "provider", name).increment();
+                throw new DeadlineExceededException(name + " provider call");
+            }
+            permit.fail();
+            throw rejected("timeout", name + " provider did not respond in time", null);
+        } catch (ExecutionException e) {
+            permit.failWith(e.getCause());
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            permit.release();
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(name + " provider call was interrupted");
+        }
+    }
+
+    // Streams are admitted on subscription and hold their slot until they complete, fail or are
+    // cancelled. The deadline applies to the gap before each element, including the first.
+    public <T> Flux<T> stream(int estimatedTokens, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Permit permit = admit(estimatedTokens, settings.maxWait());
+            long start = System.nanoTime();
+            AtomicBoolean firstElement = new AtomicBoolean(true);
+            return call.get()
+                    .timeout(settings.timeout())
+                    .doOnNext(element -> {
+                        if (firstElement.compareAndSet(true, false)) {
+                            permit.firstResponse(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnComplete(() -> permit.succeed(System.nanoTime() - start))
+                    .doOnError(permit::failWith)
+                    .doOnCancel(permit::release)
+                    .onErrorMap(TimeoutException.class,
+                            e -> rejected("timeout", name + " provider did not respond in time", null));
+        });
+    }
+
+    private Permit admit(int estimatedTokens, Duration wait) {
+        if (!breaker.tryAcquire()) {
+            throw rejected("circuit_open", name + " provider is temporarily unavailable", breaker.retryAfter());
+        }
+
+        long maxWait = wait.toNanos();
+        long deadline = System.nanoTime() + maxWait;
+        long requestWait = requestBucket.reserve(1, maxWait);
+        if (requestWait < 0) {
+            breaker.release();
+            throw rejected("rate_limited", name + " provider request budget exhausted", Duration.ofSeconds(1));
+        }
+        long tokenWait = tokenBucket.reserve(estimatedTokens, maxWait);
+        if (tokenWait < 0) {
+            requestBucket.refund(1);
+            breaker.release();
+            throw rejected("rate_limited", name + " provider token budget exhausted", Duration.ofSeconds(1));
+        }
+        long budgetWait = Math.max(requestWait, tokenWait);
+        if (budgetWait > 0) {
+            LockSupport.parkNanos(budgetWait);
+        }
+
+        AdaptiveLimiter.Admission admission;
+        try {
+            admission = limiter.acquire(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(name + " provider call was interrupted");
+        }
+        if (admission != AdaptiveLimiter.Admission.ACQUIRED) {
+            breaker.release();
+            String reason = admission == AdaptiveLimiter.Admission.QUEUE_FULL ? "queue_full" : "wait_timeout";
+            throw rejected(reason, name + " provider is overloaded", settings.maxWait());
+        }
+        return new Permit();
+    }
+
+    private ServiceUnavailableException rejected(String reason, String message, Duration retryAfter) {
+        registry.counter("ai.provider.rejections", "provider", name, "reason", reason).increment();
+        log.warn("Rejected {} provider call: {}", name, reason);
+        return new ServiceUnavailableException(message, retryAfter);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long firstResponseNanos = -1;
+
+        void firstResponse(long elapsedNanos) {
+            firstResponseNanos = elapsedNanos;
+        }
+
+        void succeed(long elapsedNanos) {
+            if (released.compareAndSet(false, true)) {
+                latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                // Streams are judged by time to first element, blocking calls by total latency.
+                long judged = firstResponseNanos >= 0 ? firstResponseNanos : elapsedNanos;
+                boolean slow = judged > settings.slowCallThreshold().toNanos();
+                limiter.release(slow ? AdaptiveLimiter.Outcome.DROPPED : AdaptiveLimiter.Outcome.SUCCESS);
+                breaker.onSuccess();
+            }
+        }
+
+        void fail() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(AdaptiveLimiter.Outcome.DROPPED);
+                breaker.onFailure();
+            }
+        }
+
+        void failWith(Throwable error) {
+            if (ProviderFailures.isProviderFault(error)) {
+                fail();
+            } else {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(AdaptiveLimiter.Outcome.IGNORED);
+                breaker.release();
+            }
+        }
+    }
+}
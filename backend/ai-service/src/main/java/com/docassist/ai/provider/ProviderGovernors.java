@@ -0,0 +1,31 @@
+package com.docassist.ai.provider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProviderGovernors {
+
+    private final ProviderGovernor embedding;
+    private final ProviderGovernor chat;
+
+    public ProviderGovernors(ProviderProperties properties, MeterRegistry registry) {
+        this.embedding = new ProviderGovernor("embedding", properties.embedding(), registry);
+        this.chat = new ProviderGovernor("chat", properties.chat(), registry);
+    }
+
+    public ProviderGovernor embedding() {
+        return embedding;
+    }
+
+    public ProviderGovernor chat() {
+        return chat;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        embedding.close();
+        chat.close();
+    }
+}
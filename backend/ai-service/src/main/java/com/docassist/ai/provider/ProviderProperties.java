@@ -0,0 +1,25 @@
+package com.docassist.ai.provider;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.provider")
+public record ProviderProperties(@DefaultValue Settings embedding, @DefaultValue Settings chat) {
+
+    public record Settings(
+            @DefaultValue("4") int initialLimit,
+            @DefaultValue("1") int minLimit,
+            @DefaultValue("32") int maxLimit,
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("50") int maxQueue,
+            @DefaultValue("2s") Duration maxWait,
+            @DefaultValue("30s") Duration timeout,
+            @DefaultValue("10s") Duration slowCallThreshold,
+            @DefaultValue("500") int requestsPerMinute,
+            @DefaultValue("200000") long tokensPerMinute,
+            @DefaultValue("5") int failureThreshold,
+            @DefaultValue("30s") Duration openDuration) {
+    }
+}
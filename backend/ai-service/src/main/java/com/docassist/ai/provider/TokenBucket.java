@@ -0,0 +1,57 @@
+package com.docassist.ai.provider;
+
+import java.util.function.LongSupplier;
+
+// Continuously refilling bucket sized to a per-minute budget. A reservation may run the bucket
+// into debt as long as the caller is willing to wait for the refill.
+class TokenBucket {
+
+    private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier nanoTime;
+
+    private double available;
+    private long lastRefill;
+
+    TokenBucket(long perMinute, LongSupplier nanoTime) {
+        this.capacity = perMinute;
+        this.refillPerNano = perMinute / NANOS_PER_MINUTE;
+        this.nanoTime = nanoTime;
+        this.available = perMinute;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    // Returns how long the caller must wait before using the reserved amount, or -1 if that
+    // would take longer than maxWaitNanos (in which case nothing is reserved).
+    synchronized long reserve(double amount, long maxWaitNanos) {
+        if (capacity <= 0) {
+            return 0;
+        }
+        refill();
+        double needed = Math.min(amount, capacity);
+        if (available >= needed) {
+            available -= needed;
+            return 0;
+        }
+        long wait = (long) Math.ceil((needed - available) / refillPerNano);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        available -= needed;
+        return wait;
+    }
+
+    synchronized void refund(double amount) {
+        if (capacity > 0) {
+            available = Math.min(capacity, available + Math.min(amount, capacity));
+        }
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
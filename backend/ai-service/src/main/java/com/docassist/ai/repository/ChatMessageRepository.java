@@ -1,13 +1,38 @@
 package com.docassist.ai.repository;
 
+import com.docassist.ai.dto.ChatMessageResponse;
 import com.docassist.ai.entity.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
-    List<ChatMessage> findBySessionIdOrderByCreatedAtAsc(UUID sessionId);
+
+    @Query("""
+            SELECT new com.docassist.ai.dto.ChatMessageResponse(m.id, m.role, m.content, m.sourceChunks, m.createdAt)
+            FROM ChatMessage m
+            WHERE m.session.id = :sessionId
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<ChatMessageResponse> findLatest(@Param("sessionId") UUID sessionId, Limit limit);
+
+    @Query("""
+            SELECT new com.docassist.ai.dto.ChatMessageResponse(m.id, m.role, m.content, m.sourceChunks, m.createdAt)
+            FROM ChatMessage m
+            WHERE m.session.id = :sessionId
+            AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))
+            ORDER BY m.createdAt DESC, m.id DESC
+            """)
+    List<ChatMessageResponse> findOlderThan(
+            @Param("sessionId") UUID sessionId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Limit limit);
 }
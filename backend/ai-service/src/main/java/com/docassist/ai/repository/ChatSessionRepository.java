@@ -1,15 +1,75 @@
 package com.docassist.ai.repository;
 
+import com.docassist.ai.dto.ChatSessionResponse;
 import com.docassist.ai.entity.ChatSession;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID> {
-    List<ChatSession> findByUserIdOrderByCreatedAtDesc(UUID userId);
     Optional<ChatSession> findByIdAndUserId(UUID id, UUID userId);
+
+    long countByUserId(UUID userId);
+
+    @Query("""
+            SELECT new com.docassist.ai.dto.ChatSessionResponse(s.id, s.documentId, s.title, s.messageCount, s.createdAt)
+            FROM ChatSession s
+            WHERE s.userId = :userId
+            ORDER BY s.createdAt DESC, s.id DESC
+            """)
+    List<ChatSessionResponse> findLatest(@Param("userId") UUID userId, Limit limit);
+
+    @Query("""
+            SELECT new com.docassist.ai.dto.ChatSessionResponse(s.id, s.documentId, s.title, s.messageCount, s.createdAt)
+            FROM ChatSession s
+            WHERE s.userId = :userId
+            AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id))
+            ORDER BY s.createdAt DESC, s.id DESC
+            """)
+    List<ChatSessionResponse> findOlderThan(
+            @Param("userId") UUID userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Limit limit);
+
+    // Sessions are only created, deleted or appended to, so any change moves one of these.
+    @Query("""
+            SELECT count(s) AS count, coalesce(sum(s.messageCount), 0) AS messageSum, max(s.createdAt) AS latestCreatedAt
+            FROM ChatSession s
+            WHERE s.userId = :userId
+            """)
+    CollectionVersion findCollectionVersion(@Param("userId") UUID userId);
+
+    @Query("SELECT s.messageCount FROM ChatSession s WHERE s.id = :id AND s.userId = :userId")
+    Optional<Integer> findMessageCount(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChatSession s SET s.messageCount = s.messageCount + 1 WHERE s.id = :id")
+    void incrementMessageCount(@Param("id") UUID id);
+
+    // Sessions created before message_count existed read 0 despite having messages. New sessions
+    // write their first message and the count in one transaction, so they never match.
+    @Modifying
+    @Query(value = """
+            UPDATE ai_db.chat_sessions s
+            SET message_count = (SELECT count(*) FROM ai_db.chat_messages m WHERE m.session_id = s.id)
+            WHERE s.message_count = 0
+            AND EXISTS (SELECT 1 FROM ai_db.chat_messages m WHERE m.session_id = s.id)
+            """, nativeQuery = true)
+    int backfillMessageCounts();
+
+    interface CollectionVersion {
+        long getCount();
+        long getMessageSum();
+        LocalDateTime getLatestCreatedAt();
+    }
 }
@@ -2,6 +2,7 @@ package com.docassist.ai.repository;
 
 import com.docassist.ai.entity.ChunkEmbedding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,19 +14,132 @@ import java.util.UUID;
 public interface ChunkEmbeddingRepository extends JpaRepository<ChunkEmbedding, UUID> {
 
     @Query(value = """
-            SELECT * FROM ai_db.chunk_embeddings
+            SELECT chunk_id AS "chunkId", document_id AS "documentId", chunk_index AS "chunkIndex",
+                   content, embedding <=> cast(:queryEmbedding as vector) AS distance
+            FROM ai_db.chunk_embeddings
             WHERE user_id = :userId
+            AND model_version = :modelVersion
             AND document_id = COALESCE(:documentId, document_id)
+            AND (cast(:documentIds as text) IS NULL OR document_id = ANY(cast(:documentIds as uuid[])))
+            AND embedding <=> cast(:queryEmbedding as vector) <= :maxDistance
             ORDER BY embedding <=> cast(:queryEmbedding as vector)
             LIMIT :topK
             """, nativeQuery = true)
-    List<ChunkEmbedding> findSimilarChunks(
+    List<SimilarChunk> findSimilarChunks(
             @Param("userId") UUID userId,
+            @Param("modelVersion") String modelVersion,
             @Param("documentId") UUID documentId,
+            @Param("documentIds") String documentIds,
             @Param("queryEmbedding") String queryEmbedding,
+            @Param("maxDistance") double maxDistance,
             @Param("topK") int topK);
 
-    void deleteByDocumentId(UUID documentId);
+    // Fetches one character more than the snippet length so callers can tell whether it was truncated.
+    @Query(value = """
+            SELECT chunk_id AS "chunkId", document_id AS "documentId", chunk_index AS "chunkIndex",
+                   LEFT(content, :prefixChars + 1) AS content,
+                   embedding <=> cast(:queryEmbedding as vector) AS distance
+            FROM ai_db.chunk_embeddings
+            WHERE user_id = :userId
+            AND model_version = :modelVersion
+            AND document_id = COALESCE(:documentId, document_id)
+            AND (cast(:documentIds as text) IS NULL OR document_id = ANY(cast(:documentIds as uuid[])))
+            AND embedding <=> cast(:queryEmbedding as vector) <= :maxDistance
+            ORDER BY embedding <=> cast(:queryEmbedding as vector)
+            LIMIT :topK
+            """, nativeQuery = true)
+    List<SimilarChunk> findSimilarChunkPrefixes(
+            @Param("userId") UUID userId,
+            @Param("modelVersion") String modelVersion,
+            @Param("documentId") UUID documentId,
+            @Param("documentIds") String documentIds,
+            @Param("queryEmbedding") String queryEmbedding,
+            @Param("maxDistance") double maxDistance,
+            @Param("topK") int topK,
+            @Param("prefixChars") int prefixChars);
+
+    // Fetches every chunk inside the given [lo, hi] chunk-index windows in one statement. Each row
+    // reports its window's score as a distance so it maps like a similarity hit.
+    @Query(value = """
+            SELECT c.chunk_id AS "chunkId", c.document_id AS "documentId", c.chunk_index AS "chunkIndex",
+                   c.content AS content, 1 - w.score AS distance
+            FROM jsonb_to_recordset(cast(:windows as jsonb)) AS w(document_id uuid, lo int, hi int, score float8)
+            JOIN ai_db.chunk_embeddings c
+                ON c.document_id = w.document_id AND c.chunk_index BETWEEN w.lo AND w.hi
+            WHERE c.user_id = :userId
+            AND c.model_version = :modelVersion
+            ORDER BY w.score DESC, c.document_id, c.chunk_index
+            """, nativeQuery = true)
+    List<SimilarChunk> findChunkWindows(
+            @Param("userId") UUID userId,
+            @Param("modelVersion") String modelVersion,
+            @Param("windows") String windows);
+
+    // Fetches one character more than the snippet length so callers can tell whether it was truncated.
+    @Query(value = """
+            SELECT chunk_id AS "chunkId", LEFT(content, :prefixChars + 1) AS content
+            FROM ai_db.chunk_embeddings
+            WHERE user_id = :userId
+            AND model_version = :modelVersion
+            AND chunk_id = ANY(cast(:chunkIds as uuid[]))
+            """, nativeQuery = true)
+    List<ChunkPrefix> findChunkPrefixes(
+            @Param("userId") UUID userId,
+            @Param("modelVersion") String modelVersion,
+            @Param("chunkIds") String chunkIds,
+            @Param("prefixChars") int prefixChars);
+
+    boolean existsByDocumentIdAndUserId(UUID documentId, UUID userId);
+
+    long countByModelVersion(String modelVersion);
+
+    // Chunks stored under the source version that have no row for the target version yet, so a
+    // re-embedding run can stop at any point and pick up where it left off.
+    @Query(value = """
+            SELECT c.chunk_id AS "chunkId", c.document_id AS "documentId", c.chunk_index AS "chunkIndex",
+                   c.user_id AS "userId", c.content AS content
+            FROM ai_db.chunk_embeddings c
+            WHERE c.model_version = :sourceVersion
+            AND NOT EXISTS (
+                SELECT 1 FROM ai_db.chunk_embeddings t
+                WHERE t.chunk_id = c.chunk_id AND t.model_version = :targetVersion)
+            ORDER BY c.chunk_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<PendingChunk> findChunksMissingVersion(
+            @Param("sourceVersion") String sourceVersion,
+            @Param("targetVersion") String targetVersion,
+            @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM ai_db.chunk_embeddings
+            WHERE id IN (SELECT id FROM ai_db.chunk_embeddings WHERE model_version = :modelVersion LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteVersionBatch(@Param("modelVersion") String modelVersion, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM ChunkEmbedding e WHERE e.documentId = :documentId")
+    void deleteByDocumentId(@Param("documentId") UUID documentId);
+
+    interface ChunkPrefix {
+        UUID getChunkId();
+        String getContent();
+    }
+
+    interface PendingChunk {
+        UUID getChunkId();
+        UUID getDocumentId();
+        Integer getChunkIndex();
+        UUID getUserId();
+        String getContent();
+    }
 
-    List<ChunkEmbedding> findByDocumentId(UUID documentId);
+    interface SimilarChunk {
+        UUID getChunkId();
+        UUID getDocumentId();
+        Integer getChunkIndex();
+        String getContent();
+        Double getDistance();
+    }
 }
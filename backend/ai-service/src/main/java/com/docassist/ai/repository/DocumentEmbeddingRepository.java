@@ -0,0 +1,90 @@
+package com.docassist.ai.repository;
+
+import com.docassist.ai.entity.DocumentEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DocumentEmbeddingRepository extends JpaRepository<DocumentEmbedding, DocumentEmbedding.Key> {
+
+    // pgvector's avg() recomputes the centroid from the document's stored chunks in one statement.
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO ai_db.document_embeddings
+                (document_id, model_version, user_id, centroid, chunk_count, updated_at)
+            SELECT document_id, model_version, user_id, avg(embedding), count(*), now()
+            FROM ai_db.chunk_embeddings
+            WHERE document_id = :documentId
+            AND model_version = :modelVersion
+            GROUP BY document_id, model_version, user_id
+            ON CONFLICT (document_id, model_version) DO UPDATE
+            SET centroid = EXCLUDED.centroid, chunk_count = EXCLUDED.chunk_count, updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void refreshCentroid(@Param("documentId") UUID documentId, @Param("modelVersion") String modelVersion);
+
+    @Query(value = """
+            SELECT document_id
+            FROM ai_db.document_embeddings
+            WHERE user_id = :userId
+            AND model_version = :modelVersion
+            ORDER BY centroid <=> cast(:queryEmbedding as vector)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findNearestDocumentIds(
+            @Param("userId") UUID userId,
+            @Param("modelVersion") String modelVersion,
+            @Param("queryEmbedding") String queryEmbedding,
+            @Param("limit") int limit);
+
+    // Documents embedded under this version that have no centroid yet, e.g. ones embedded before
+    // centroids were introduced.
+    @Query(value = """
+            SELECT DISTINCT c.document_id
+            FROM ai_db.chunk_embeddings c
+            WHERE c.model_version = :modelVersion
+            AND NOT EXISTS (
+                SELECT 1 FROM ai_db.document_embeddings d
+                WHERE d.document_id = c.document_id AND d.model_version = c.model_version)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findDocumentsWithoutCentroid(@Param("modelVersion") String modelVersion, @Param("limit") int limit);
+
+    // Embedding, re-embedding or deleting a document moves one of these, whichever instance did it.
+    @Query("""
+            SELECT count(d) AS documents, max(d.updatedAt) AS updatedAt
+            FROM DocumentEmbedding d
+            WHERE d.documentId = :documentId
+            AND d.modelVersion = :modelVersion
+            """)
+    ContentVersion findDocumentVersion(
+            @Param("documentId") UUID documentId,
+            @Param("modelVersion") String modelVersion);
+
+    @Query("""
+            SELECT count(d) AS documents, max(d.updatedAt) AS updatedAt
+            FROM DocumentEmbedding d
+            WHERE d.userId = :userId
+            AND d.modelVersion = :modelVersion
+            """)
+    ContentVersion findLibraryVersion(@Param("userId") UUID userId, @Param("modelVersion") String modelVersion);
+
+    @Modifying
+    @Query("DELETE FROM DocumentEmbedding d WHERE d.documentId = :documentId")
+    void deleteByDocumentId(@Param("documentId") UUID documentId);
+
+    @Modifying
+    @Query("DELETE FROM DocumentEmbedding d WHERE d.modelVersion = :modelVersion")
+    int deleteByModelVersion(@Param("modelVersion") String modelVersion);
+
+    interface ContentVersion {
+        long getDocuments();
+        LocalDateTime getUpdatedAt();
+    }
+}
@@ -0,0 +1,46 @@
+package com.docassist.ai.repository;
+
+import com.docassist.ai.entity.EmbeddingVersion;
+import com.docassist.ai.entity.EmbeddingVersionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmbeddingVersionRepository extends JpaRepository<EmbeddingVersion, String> {
+
+    Optional<EmbeddingVersion> findFirstByStatus(EmbeddingVersionStatus status);
+
+    List<EmbeddingVersion> findByStatus(EmbeddingVersionStatus status);
+
+    @Modifying
+    @Query("""
+            UPDATE EmbeddingVersion v SET v.leaseOwner = :owner, v.leaseUntil = :until
+            WHERE v.version = :version
+            AND (v.leaseUntil IS NULL OR v.leaseUntil < :now OR v.leaseOwner = :owner)
+            """)
+    int acquireLease(
+            @Param("version") String version,
+            @Param("owner") String owner,
+            @Param("until") LocalDateTime until,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE EmbeddingVersion v SET v.status = :to WHERE v.status = :from")
+    int updateStatus(@Param("from") EmbeddingVersionStatus from, @Param("to") EmbeddingVersionStatus to);
+
+    @Modifying
+    @Query("""
+            UPDATE EmbeddingVersion v SET v.status = com.docassist.ai.entity.EmbeddingVersionStatus.ACTIVE,
+                v.activatedAt = :now, v.leaseOwner = NULL, v.leaseUntil = NULL
+            WHERE v.version = :version
+            AND v.status = com.docassist.ai.entity.EmbeddingVersionStatus.MIGRATING
+            """)
+    int activate(@Param("version") String version, @Param("now") LocalDateTime now);
+}
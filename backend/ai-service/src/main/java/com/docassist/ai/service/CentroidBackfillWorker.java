@@ -0,0 +1,66 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.DocumentEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+// Library-wide search only looks at documents that have a centroid, so every embedded document
+// needs one. New documents get theirs when they are embedded; this worker fills in the ones that
+// were embedded earlier, or whose refresh failed. refreshCentroid is an upsert, so instances
+// running it concurrently do no harm.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CentroidBackfillWorker {
+
+    private final EmbeddingVersionService versionService;
+    private final DocumentEmbeddingRepository documentEmbeddingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.rag.two-stage.backfill-batch-size:200}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        run();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rag.two-stage.backfill-interval:10m}",
+            initialDelayString = "${app.rag.two-stage.backfill-interval:10m}")
+    public void run() {
+        try {
+            for (EmbeddingVersionService.EmbeddingSpec version : versionService.writeVersions()) {
+                int filled = backfill(version.version());
+                if (filled > 0) {
+                    log.info("Computed {} missing document centroids for embedding version {}",
+                            filled, version.version());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Centroid backfill failed, will retry", e);
+        }
+    }
+
+    int backfill(String version) {
+        int filled = 0;
+        List<UUID> missing;
+        do {
+            missing = documentEmbeddingRepository.findDocumentsWithoutCentroid(version, batchSize);
+            for (UUID documentId : missing) {
+                transactionTemplate.executeWithoutResult(status ->
+                        documentEmbeddingRepository.refreshCentroid(documentId, version));
+            }
+            filled += missing.size();
+        } while (missing.size() == batchSize);
+        return filled;
+    }
+}
@@ -4,13 +4,25 @@ import com.docassist.ai.dto.*;
 import com.docassist.ai.entity.*;
 import com.docassist.ai.repository.ChatMessageRepository;
 import com.docassist.ai.repository.ChatSessionRepository;
+import com.docassist.common.dto.PagedResponse;
 import com.docassist.common.exception.ResourceNotFoundException;
+import com.docassist.common.web.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -21,63 +33,174 @@ public class ChatService {
     private final ChatSessionRepository sessionRepository;
     private final ChatMessageRepository messageRepository;
     private final RagService ragService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public ChatResponse chat(ChatRequest request, UUID userId) {
-        ChatSession session;
+    private static final int MAX_PAGE_SIZE = 100;
 
-        if (request.getSessionId() != null) {
-            session = sessionRepository.findByIdAndUserId(request.getSessionId(), userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("ChatSession", "id", request.getSessionId()));
-        } else {
-            session = ChatSession.builder()
-                    .userId(userId)
-                    .documentId(request.getDocumentId())
-                    .title(request.getQuestion().substring(0, Math.min(100, request.getQuestion().length())))
-                    .build();
-            session = sessionRepository.save(session);
-        }
-
-        ChatMessage userMessage = ChatMessage.builder()
-                .session(session)
-                .role(MessageRole.USER)
-                .content(request.getQuestion())
-                .build();
-        messageRepository.save(userMessage);
+    public ChatResponse chat(ChatRequest request, UUID userId) {
+        ChatSession session = startExchange(request, userId);
 
         RagService.RagResult result = ragService.answerQuestion(
                 request.getQuestion(), userId, request.getDocumentId());
 
-        ChatMessage assistantMessage = ChatMessage.builder()
-                .session(session)
-                .role(MessageRole.ASSISTANT)
-                .content(result.answer())
-                .sourceChunks(result.sources())
-                .build();
-        messageRepository.save(assistantMessage);
+        saveAssistantMessage(session, result.answer(), result.sources());
 
         return ChatResponse.builder()
                 .sessionId(session.getId())
                 .answer(result.answer())
                 .sources(result.sources())
+                .promptTokens(result.promptTokens())
                 .build();
     }
 
-    public List<ChatSessionResponse> getUserSessions(UUID userId) {
-        return sessionRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(this::toSessionResponse)
-                .toList();
+    public Flux<ServerSentEvent<ChatStreamEvent>> streamChat(ChatRequest request, UUID userId) {
+        ChatSession session = startExchange(request, userId);
+
+        RagService.RagStream stream = ragService.streamAnswer(
+                request.getQuestion(), userId, request.getDocumentId());
+
+        StringBuilder answer = new StringBuilder();
+
+        ServerSentEvent<ChatStreamEvent> sourcesEvent = ServerSentEvent.<ChatStreamEvent>builder()
+                .event("sources")
+                .data(ChatStreamEvent.builder()
+                        .sessionId(session.getId())
+                        .sources(stream.sources())
+                        .promptTokens(stream.promptTokens())
+                        .build())
+                .build();
+
+        Flux<ServerSentEvent<ChatStreamEvent>> tokenEvents = stream.tokens()
+                .doOnNext(answer::append)
+                .map(token -> ServerSentEvent.<ChatStreamEvent>builder()
+                        .event("token")
+                        .data(ChatStreamEvent.builder().content(token).build())
+                        .build());
+
+        Mono<ServerSentEvent<ChatStreamEvent>> doneEvent = Mono.fromCallable(() ->
+                        saveAssistantMessage(session, answer.toString(), stream.sources()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(saved -> ServerSentEvent.<ChatStreamEvent>builder()
+                        .event("done")
+                        .data(ChatStreamEvent.builder()
+                                .sessionId(session.getId())
+                                .messageId(saved.getId())
+                                .build())
+                        .build());
+
+        return Flux.concat(Flux.just(sourcesEvent), tokenEvents, doneEvent)
+                .onErrorResume(e -> {
+                    log.error("Streaming answer failed for session {}", session.getId(), e);
+                    return Flux.just(ServerSentEvent.<ChatStreamEvent>builder()
+                            .event("error")
+                            .data(ChatStreamEvent.builder()
+                                    .sessionId(session.getId())
+                                    .content("Failed to generate an answer")
+                                    .build())
+                            .build());
+                });
     }
 
-    public List<ChatMessageResponse> getSessionMessages(UUID sessionId, UUID userId) {
-        ChatSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
+    // Searches are not recorded in chat sessions; they return the passages an answer would cite.
+    public List<SourceChunk> search(SearchRequest request, UUID userId) {
+        return ragService.findSources(request.getQuery(), userId, request.getDocumentId());
+    }
+
+    // Batch answers are not recorded in chat sessions; they are streamed back in completion order.
+    public Flux<BatchChatAnswer> answerBatch(BatchChatRequest request, UUID userId) {
+        return ragService.answerBatch(request.getQuestions(), userId, request.getDocumentId())
+                .map(item -> BatchChatAnswer.builder()
+                        .index(item.index())
+                        .question(item.question())
+                        .answer(item.result() != null ? item.result().answer() : null)
+                        .sources(item.result() != null ? item.result().sources() : null)
+                        .promptTokens(item.result() != null ? item.result().promptTokens() : null)
+                        .error(item.error())
+                        .build());
+    }
+
+    public String getUserSessionsETag(UUID userId, String cursor, int size) {
+        ChatSessionRepository.CollectionVersion version = sessionRepository.findCollectionVersion(userId);
+        return ETags.of(version.getCount(), version.getMessageSum(), version.getLatestCreatedAt(),
+                cursor, clampPageSize(size));
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<ChatSessionResponse> getUserSessions(UUID userId, String cursor, int size) {
+        int pageSize = clampPageSize(size);
+        PageCursor after = PageCursor.decode(cursor);
+
+        List<ChatSessionResponse> rows = after == null
+                ? sessionRepository.findLatest(userId, Limit.of(pageSize + 1))
+                : sessionRepository.findOlderThan(userId, after.createdAt(), after.id(), Limit.of(pageSize + 1));
+
+        boolean last = rows.size() <= pageSize;
+        List<ChatSessionResponse> page = last ? rows : rows.subList(0, pageSize);
+        long total = sessionRepository.countByUserId(userId);
+
+        return PagedResponse.<ChatSessionResponse>builder()
+                .content(page)
+                .size(pageSize)
+                .totalElements(total)
+                .totalPages(totalPages(total, pageSize))
+                .last(last)
+                .nextCursor(last ? null : cursorOf(page.get(page.size() - 1).getCreatedAt(),
+                        page.get(page.size() - 1).getId()))
+                .build();
+    }
+
+    // Messages are append-only, so the session's message count identifies the state of every page.
+    // Snippets are read from the chunk store, so with them the library's content version is part of it too.
+    public String getSessionMessagesETag(UUID sessionId, UUID userId, String cursor, int size,
+                                         boolean includeSnippets) {
+        int messageCount = sessionRepository.findMessageCount(sessionId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("ChatSession", "id", sessionId));
+        if (includeSnippets) {
+            return ETags.of(sessionId, messageCount, cursor, clampPageSize(size), true,
+                    ragService.snippetsVersion(userId));
+        }
+        return ETags.of(sessionId, messageCount, cursor, clampPageSize(size), false);
+    }
+
+    // Pages walk backwards from the newest message; each page is returned oldest-first so it
+    // can be prepended to what the client already shows. Sources are references only unless
+    // snippets are requested, in which case the whole page is hydrated in one query.
+    @Transactional(readOnly = true)
+    public PagedResponse<ChatMessageResponse> getSessionMessages(UUID sessionId, UUID userId, String cursor, int size,
+                                                                 boolean includeSnippets) {
+        int messageCount = sessionRepository.findMessageCount(sessionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("ChatSession", "id", sessionId));
+        int pageSize = clampPageSize(size);
+        PageCursor before = PageCursor.decode(cursor);
 
-        return messageRepository.findBySessionIdOrderByCreatedAtAsc(session.getId())
-                .stream()
-                .map(this::toMessageResponse)
+        List<ChatMessageResponse> rows = before == null
+                ? messageRepository.findLatest(sessionId, Limit.of(pageSize + 1))
+                : messageRepository.findOlderThan(sessionId, before.createdAt(), before.id(), Limit.of(pageSize + 1));
+
+        boolean last = rows.size() <= pageSize;
+        List<ChatMessageResponse> page = new ArrayList<>(last ? rows : rows.subList(0, pageSize));
+        Collections.reverse(page);
+
+        List<SourceChunk> sources = page.stream()
+                .map(ChatMessageResponse::getSourceChunks)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
                 .toList();
+        if (includeSnippets) {
+            ragService.hydrateSnippets(sources, userId);
+        } else {
+            // Messages written before sources became references still carry an inline excerpt.
+            sources.forEach(source -> source.setContent(null));
+        }
+
+        return PagedResponse.<ChatMessageResponse>builder()
+                .content(page)
+                .size(pageSize)
+                .totalElements(messageCount)
+                .totalPages(totalPages(messageCount, pageSize))
+                .last(last)
+                .nextCursor(last ? null : cursorOf(page.get(0).getCreatedAt(), page.get(0).getId()))
+                .build();
     }
 
     @Transactional
@@ -87,23 +210,62 @@ public class ChatService {
         sessionRepository.delete(session);
     }
 
-    private ChatSessionResponse toSessionResponse(ChatSession session) {
-        return ChatSessionResponse.builder()
-                .id(session.getId())
-                .documentId(session.getDocumentId())
-                .title(session.getTitle())
-                .messageCount(session.getMessages().size())
-                .createdAt(session.getCreatedAt())
+    // Session and question are committed before retrieval and generation start, so no
+    // connection is held while the embedding and chat models are being called.
+    private ChatSession startExchange(ChatRequest request, UUID userId) {
+        return transactionTemplate.execute(status -> {
+            ChatSession session = resolveSession(request, userId);
+            saveUserMessage(session, request.getQuestion());
+            sessionRepository.incrementMessageCount(session.getId());
+            return session;
+        });
+    }
+
+    private ChatSession resolveSession(ChatRequest request, UUID userId) {
+        if (request.getSessionId() != null) {
+            return sessionRepository.findByIdAndUserId(request.getSessionId(), userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("ChatSession", "id", request.getSessionId()));
+        }
+
+        ChatSession session = ChatSession.builder()
+                .userId(userId)
+                .documentId(request.getDocumentId())
+                .title(request.getQuestion().substring(0, Math.min(100, request.getQuestion().length())))
                 .build();
+        return sessionRepository.save(session);
     }
 
-    private ChatMessageResponse toMessageResponse(ChatMessage message) {
-        return ChatMessageResponse.builder()
-                .id(message.getId())
-                .role(message.getRole())
-                .content(message.getContent())
-                .sourceChunks(message.getSourceChunks())
-                .createdAt(message.getCreatedAt())
+    private void saveUserMessage(ChatSession session, String question) {
+        ChatMessage userMessage = ChatMessage.builder()
+                .session(session)
+                .role(MessageRole.USER)
+                .content(question)
                 .build();
+        messageRepository.save(userMessage);
+    }
+
+    private ChatMessage saveAssistantMessage(ChatSession session, String answer, List<SourceChunk> sources) {
+        return transactionTemplate.execute(status -> {
+            ChatMessage saved = messageRepository.save(ChatMessage.builder()
+                    .session(session)
+                    .role(MessageRole.ASSISTANT)
+                    .content(answer)
+                    .sourceChunks(sources.stream().map(SourceChunk::reference).toList())
+                    .build());
+            sessionRepository.incrementMessageCount(session.getId());
+            return saved;
+        });
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private int totalPages(long total, int pageSize) {
+        return (int) ((total + pageSize - 1) / pageSize);
+    }
+
+    private String cursorOf(LocalDateTime createdAt, UUID id) {
+        return new PageCursor(createdAt, id).encode();
     }
 }
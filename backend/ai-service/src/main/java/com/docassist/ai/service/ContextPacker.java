@@ -0,0 +1,251 @@
+package com.docassist.ai.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ContextPacker {
+
+    static final String SEPARATOR = "\n\n---\n\n";
+
+    private static final int SHINGLE_SIZE = 3;
+    private static final int MIN_TEXT_OVERLAP_WORDS = 8;
+    private static final int MAX_OVERLAP_WORDS = 400;
+    private static final Pattern WORD = Pattern.compile("\\S+");
+
+    private final int maxTokens;
+    private final double duplicateThreshold;
+
+    public ContextPacker(
+            @Value("${app.rag.context.max-tokens:3000}") int maxTokens,
+            @Value("${app.rag.context.duplicate-threshold:0.9}") double duplicateThreshold) {
+        this.maxTokens = maxTokens;
+        this.duplicateThreshold = duplicateThreshold;
+    }
+
+    public PackedContext pack(List<EmbeddingService.RetrievedChunk> rankedChunks) {
+        List<Passage> passages = new ArrayList<>();
+        List<Set<String>> keptShingles = new ArrayList<>();
+
+        for (int rank = 0; rank < rankedChunks.size(); rank++) {
+            EmbeddingService.RetrievedChunk chunk = rankedChunks.get(rank);
+            Passage passage = Passage.of(chunk, rank);
+            if (passage.words.isEmpty()) {
+                continue;
+            }
+
+            Set<String> shingles = shingles(passage.words.toArray(String[]::new));
+            if (isNearDuplicate(shingles, keptShingles)) {
+                continue;
+            }
+            keptShingles.add(shingles);
+
+            absorb(passages, passage);
+        }
+
+        passages.sort(Comparator.comparingInt(Passage::rank));
+
+        List<String> texts = new ArrayList<>();
+        List<EmbeddingService.RetrievedChunk> included = new ArrayList<>();
+        int usedTokens = 0;
+        for (Passage passage : passages) {
+            int remaining = maxTokens - usedTokens;
+            int passageTokens = estimateTokens(passage.words.size());
+            if (passageTokens <= remaining) {
+                texts.add(passage.text);
+                included.addAll(passage.chunks);
+                usedTokens += passageTokens;
+            } else if (texts.isEmpty() && remaining * 0.75 >= 1) {
+                int wordBudget = (int) (remaining * 0.75);
+                texts.add(passage.text.substring(0, passage.wordEnds[wordBudget - 1]));
+                included.add(passage.chunks.get(0));
+                usedTokens += estimateTokens(wordBudget);
+            }
+        }
+
+        included.sort(Comparator.comparingInt(rankedChunks::indexOf));
+        log.debug("Packed {} of {} chunks into {} passages ({} tokens, budget {})",
+                included.size(), rankedChunks.size(), texts.size(), usedTokens, maxTokens);
+        return new PackedContext(String.join(SEPARATOR, texts), included, usedTokens);
+    }
+
+    public static int estimateTokens(String text) {
+        if (text == null || text.isBlank()) return 0;
+        return estimateTokens(words(text).length);
+    }
+
+    private static int estimateTokens(int wordCount) {
+        return (int) Math.ceil(wordCount / 0.75);
+    }
+
+    private void absorb(List<Passage> passages, Passage incoming) {
+        Passage current = incoming;
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (Passage existing : passages) {
+                Passage joined = join(existing, current);
+                if (joined != null) {
+                    passages.remove(existing);
+                    current = joined;
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        passages.add(current);
+    }
+
+    private Passage join(Passage a, Passage b) {
+        if (!a.documentId.equals(b.documentId)) {
+            return null;
+        }
+        if (follows(a, b)) {
+            return a.append(b);
+        }
+        if (follows(b, a)) {
+            return b.append(a);
+        }
+        return null;
+    }
+
+    private boolean follows(Passage left, Passage right) {
+        if (left.lastIndex != null && right.firstIndex != null) {
+            return left.lastIndex + 1 == right.firstIndex;
+        }
+        return overlap(left.words, right.words) >= MIN_TEXT_OVERLAP_WORDS;
+    }
+
+    static int overlap(List<String> left, List<String> right) {
+        int max = Math.min(MAX_OVERLAP_WORDS, Math.min(left.size(), right.size()));
+        for (int k = max; k > 0; k--) {
+            if (left.subList(left.size() - k, left.size()).equals(right.subList(0, k))) {
+                return k;
+            }
+        }
+        return 0;
+    }
+
+    private boolean isNearDuplicate(Set<String> shingles, Collection<Set<String>> keptShingles) {
+        for (Set<String> kept : keptShingles) {
+            if (jaccard(shingles, kept) >= duplicateThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        int intersection = 0;
+        for (String shingle : a) {
+            if (b.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private static Set<String> shingles(String[] words) {
+        Set<String> shingles = new HashSet<>();
+        if (words.length < SHINGLE_SIZE) {
+            shingles.add(String.join(" ", words).toLowerCase());
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_SIZE <= words.length; i++) {
+            shingles.add(Arrays.stream(words, i, i + SHINGLE_SIZE)
+                    .map(String::toLowerCase)
+                    .collect(Collectors.joining(" ")));
+        }
+        return shingles;
+    }
+
+    private static String[] words(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    // A span of one document in its original layout. Words (with the offset each one ends at) are
+    // only used to find overlaps, detect duplicates and estimate tokens; the prompt gets the text
+    // itself, so line breaks, lists and tables survive merging.
+    private static final class Passage {
+        private final UUID documentId;
+        private final Integer firstIndex;
+        private final Integer lastIndex;
+        private final String text;
+        private final List<String> words;
+        private final int[] wordEnds;
+        private final List<EmbeddingService.RetrievedChunk> chunks;
+        private final int rank;
+
+        private Passage(UUID documentId, Integer firstIndex, Integer lastIndex, String text, List<String> words,
+                        int[] wordEnds, List<EmbeddingService.RetrievedChunk> chunks, int rank) {
+            this.documentId = documentId;
+            this.firstIndex = firstIndex;
+            this.lastIndex = lastIndex;
+            this.text = text;
+            this.words = words;
+            this.wordEnds = wordEnds;
+            this.chunks = chunks;
+            this.rank = rank;
+        }
+
+        static Passage of(EmbeddingService.RetrievedChunk chunk, int rank) {
+            String text = chunk.content() == null ? "" : chunk.content().strip();
+            List<String> words = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            Matcher matcher = WORD.matcher(text);
+            while (matcher.find()) {
+                words.add(matcher.group());
+                ends.add(matcher.end());
+            }
+            return new Passage(chunk.documentId(), chunk.chunkIndex(), chunk.chunkIndex(), text, words,
+                    ends.stream().mapToInt(Integer::intValue).toArray(), List.of(chunk), rank);
+        }
+
+        int rank() {
+            return rank;
+        }
+
+        // The next passage's first `shared` words repeat this one's tail; its text is cut right after
+        // them, keeping the whitespace that originally followed.
+        Passage append(Passage next) {
+            int shared = overlap(words, next.words);
+            String separator = shared == 0 ? "\n" : "";
+            int cut = shared == 0 ? 0 : next.wordEnds[shared - 1];
+            String joinedText = text + separator + next.text.substring(cut);
+
+            List<String> union = new ArrayList<>(words);
+            union.addAll(next.words.subList(shared, next.words.size()));
+            int[] unionEnds = Arrays.copyOf(wordEnds, union.size());
+            int shift = text.length() + separator.length() - cut;
+            for (int i = shared; i < next.words.size(); i++) {
+                unionEnds[words.size() + i - shared] = next.wordEnds[i] + shift;
+            }
+
+            List<EmbeddingService.RetrievedChunk> unionChunks = new ArrayList<>(chunks);
+            unionChunks.addAll(next.chunks);
+
+            return new Passage(documentId, firstIndex, next.lastIndex, joinedText, union, unionEnds, unionChunks,
+                    Math.min(rank, next.rank));
+        }
+    }
+
+    public record PackedContext(String text, List<EmbeddingService.RetrievedChunk> chunks, int tokenCount) {}
+}
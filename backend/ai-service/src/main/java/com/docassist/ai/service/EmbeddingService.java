@@ -1,16 +1,41 @@
 package com.docassist.ai.service;
 
 import com.docassist.ai.entity.ChunkEmbedding;
+import com.docassist.ai.provider.ProviderGovernors;
 import com.docassist.ai.repository.ChunkEmbeddingRepository;
+import com.docassist.ai.repository.DocumentEmbeddingRepository;
+import com.docassist.common.exception.DeadlineExceededException;
+import com.docassist.common.web.RequestDeadline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,50 +43,300 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EmbeddingService {
 
+    private static final String WINDOW_JSON = "{\"document_id\":\"%s\",\"lo\":%d,\"hi\":%d,\"score\":%f}";
+
     private final EmbeddingModel embeddingModel;
+    private final ProviderGovernors providerGovernors;
     private final ChunkEmbeddingRepository embeddingRepository;
+    private final DocumentEmbeddingRepository documentEmbeddingRepository;
+    private final SemanticAnswerCache answerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final EmbeddingVersionService versionService;
+
+    @Value("${app.embedding.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.rag.two-stage.enabled:true}")
+    private boolean twoStageEnabled;
+
+    @Value("${app.rag.two-stage.candidate-documents:20}")
+    private int candidateDocuments;
 
-    @Transactional
     public void embedAndStoreChunks(List<ChunkData> chunks, UUID documentId, UUID userId) {
         log.info("Embedding {} chunks for document {}", chunks.size(), documentId);
 
-        for (ChunkData chunk : chunks) {
-            float[] vector = embeddingModel.embed(chunk.content());
-            String vectorString = toVectorString(vector);
+        List<String> texts = chunks.stream().map(ChunkData::content).toList();
+        List<EmbeddingVersionService.EmbeddingSpec> versions = versionService.writeVersions();
+        List<ChunkEmbedding> embeddings = new ArrayList<>(chunks.size() * versions.size());
+        for (EmbeddingVersionService.EmbeddingSpec version : versions) {
+            List<float[]> vectors = embedAll(version, texts);
+            for (int i = 0; i < chunks.size(); i++) {
+                embeddings.add(ChunkEmbedding.builder()
+                        .chunkId(chunks.get(i).chunkId())
+                        .documentId(documentId)
+                        .chunkIndex(chunks.get(i).chunkIndex())
+                        .userId(userId)
+                        .content(chunks.get(i).content())
+                        .modelVersion(version.version())
+                        .embedding(toVectorString(vectors.get(i)))
+                        .build());
+            }
+        }
 
-            ChunkEmbedding embedding = ChunkEmbedding.builder()
-                    .chunkId(chunk.chunkId())
-                    .documentId(documentId)
-                    .userId(userId)
-                    .content(chunk.content())
-                    .embedding(vectorString)
-                    .build();
+        transactionTemplate.executeWithoutResult(status -> {
+            embeddingRepository.saveAll(embeddings);
+            versions.forEach(version -> documentEmbeddingRepository.refreshCentroid(documentId, version.version()));
+            afterCommit(() -> {
+                answerCache.invalidateDocument(documentId);
+                answerCache.invalidateUser(userId);
+            });
+        });
 
-            embeddingRepository.save(embedding);
+        log.info("Stored {} embeddings for document {}", chunks.size(), documentId);
+    }
+
+    // Re-embeds already stored chunks under another version; used by the migration worker.
+    public void storeVersion(EmbeddingVersionService.EmbeddingSpec version,
+                             List<ChunkEmbeddingRepository.PendingChunk> chunks) {
+        List<float[]> vectors = embedAll(version, chunks.stream()
+                .map(ChunkEmbeddingRepository.PendingChunk::getContent)
+                .toList());
+        List<ChunkEmbedding> embeddings = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkEmbeddingRepository.PendingChunk chunk = chunks.get(i);
+            embeddings.add(ChunkEmbedding.builder()
+                    .chunkId(chunk.getChunkId())
+                    .documentId(chunk.getDocumentId())
+                    .chunkIndex(chunk.getChunkIndex())
+                    .userId(chunk.getUserId())
+                    .content(chunk.getContent())
+                    .modelVersion(version.version())
+                    .embedding(toVectorString(vectors.get(i)))
+                    .build());
         }
 
-        log.info("Stored {} embeddings for document {}", chunks.size(), documentId);
+        transactionTemplate.executeWithoutResult(status -> {
+            embeddingRepository.saveAll(embeddings);
+            chunks.stream()
+                    .map(ChunkEmbeddingRepository.PendingChunk::getDocumentId)
+                    .distinct()
+                    .forEach(documentId -> documentEmbeddingRepository.refreshCentroid(documentId, version.version()));
+        });
+    }
+
+    public float[] embed(String text) {
+        return embedAll(List.of(text)).get(0);
     }
 
-    public List<ChunkEmbedding> searchSimilar(String query, UUID userId, UUID documentId, int topK) {
-        float[] queryVector = embeddingModel.embed(query);
+    public List<float[]> embedAll(List<String> texts) {
+        return embedAll(versionService.active(), texts);
+    }
+
+    private List<float[]> embedAll(EmbeddingVersionService.EmbeddingSpec version, List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            RequestDeadline.check("embedding");
+            vectors.addAll(embedBatch(version, texts.subList(start, Math.min(start + batchSize, texts.size()))));
+        }
+        return vectors;
+    }
+
+    private List<float[]> embedBatch(EmbeddingVersionService.EmbeddingSpec version, List<String> texts) {
+        int tokens = texts.stream().mapToInt(ContextPacker::estimateTokens).sum();
+        EmbeddingOptions options = EmbeddingOptionsBuilder.builder()
+                .withModel(version.model())
+                .withDimensions(version.dimensions())
+                .build();
+        EmbeddingResponse response = providerGovernors.embedding().call(tokens,
+                () -> embeddingModel.call(new EmbeddingRequest(texts, options)));
+        return response.getResults().stream()
+                .sorted(Comparator.comparingInt(Embedding::getIndex))
+                .map(Embedding::getOutput)
+                .toList();
+    }
+
+    public List<RetrievedChunk> searchSimilar(float[] queryVector, UUID userId, UUID documentId,
+                                              double minScore, int topK) {
+        String vectorString = toVectorString(queryVector);
+        return withinDeadline("vector search", () -> {
+            String documentIds = candidateDocuments(vectorString, userId, documentId);
+            return toRetrievedChunks(embeddingRepository.findSimilarChunks(
+                    userId, versionService.active().version(), documentId, documentIds, vectorString, 1 - minScore, topK));
+        });
+    }
+
+    public List<RetrievedChunk> searchSimilarPrefixes(float[] queryVector, UUID userId, UUID documentId,
+                                                      double minScore, int topK, int prefixChars) {
         String vectorString = toVectorString(queryVector);
+        return withinDeadline("vector search", () -> {
+            String documentIds = candidateDocuments(vectorString, userId, documentId);
+            return toRetrievedChunks(embeddingRepository.findSimilarChunkPrefixes(
+                    userId, versionService.active().version(), documentId, documentIds, vectorString,
+                    1 - minScore, topK, prefixChars));
+        });
+    }
+
+    // Chunks of deleted documents are simply missing from the result.
+    public Map<UUID, String> chunkPrefixes(Collection<UUID> chunkIds, UUID userId, int prefixChars) {
+        if (chunkIds.isEmpty()) {
+            return Map.of();
+        }
+        return embeddingRepository.findChunkPrefixes(userId, versionService.active().version(),
+                        toUuidArray(chunkIds), prefixChars)
+                .stream()
+                .collect(Collectors.toMap(ChunkEmbeddingRepository.ChunkPrefix::getChunkId,
+                        ChunkEmbeddingRepository.ChunkPrefix::getContent, (first, second) -> first));
+    }
+
+    // Library-wide searches first shortlist the documents whose centroid is closest to the query,
+    // so chunk search cost follows the candidate set instead of the size of the library. Returns
+    // null (no restriction) for single-document searches and when no centroids exist yet.
+    // Documents embedded without a centroid get one from CentroidBackfillWorker.
+    private String candidateDocuments(String vectorString, UUID userId, UUID documentId) {
+        if (documentId != null || !twoStageEnabled) {
+            return null;
+        }
+        List<UUID> documentIds = documentEmbeddingRepository.findNearestDocumentIds(
+                userId, versionService.active().version(), vectorString, candidateDocuments);
+        if (documentIds.isEmpty()) {
+            return null;
+        }
+        return toUuidArray(documentIds);
+    }
+
+    // Read queries made for a request run in a transaction that times out with the request
+    // deadline, so the JDBC driver cancels statements that would outlive it. Transaction timeouts
+    // have whole-second resolution, which is fine next to the gateway's timeouts.
+    private <T> T withinDeadline(String stage, Supplier<T> query) {
+        RequestDeadline.check(stage);
+        Optional<Duration> remaining = RequestDeadline.remaining();
+        if (remaining.isEmpty()) {
+            return query.get();
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        template.setTimeout((int) Math.max(1, (remaining.get().toMillis() + 999) / 1000));
+        try {
+            return template.execute(status -> query.get());
+        } catch (TransactionTimedOutException | QueryTimeoutException e) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
 
-        return embeddingRepository.findSimilarChunks(userId, documentId, vectorString, topK);
+    private static String toUuidArray(Collection<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    // Adds the chunks within +-window positions of each hit. Windows of the same document that
+    // overlap or touch are merged first and fetched in a single query. Neighbours follow all the
+    // hits, ordered by their window's best score, and ContextPacker stitches them back together.
+    public List<RetrievedChunk> expandNeighbors(List<RetrievedChunk> hits, UUID userId, int window) {
+        if (window <= 0 || hits.isEmpty()) {
+            return hits;
+        }
+        List<ChunkWindow> windows = mergeWindows(hits, window);
+        if (windows.isEmpty()) {
+            return hits;
+        }
+
+        Set<UUID> hitIds = hits.stream().map(RetrievedChunk::chunkId).collect(Collectors.toSet());
+        List<RetrievedChunk> neighbors = withinDeadline("neighbour expansion", () -> toRetrievedChunks(
+                        embeddingRepository.findChunkWindows(userId, versionService.active().version(), toJson(windows))))
+                .stream()
+                .filter(chunk -> !hitIds.contains(chunk.chunkId()))
+                .toList();
+
+        List<RetrievedChunk> expanded = new ArrayList<>(hits.size() + neighbors.size());
+        expanded.addAll(hits);
+        expanded.addAll(neighbors);
+        return expanded;
+    }
+
+    static List<ChunkWindow> mergeWindows(List<RetrievedChunk> hits, int window) {
+        Map<UUID, List<ChunkWindow>> byDocument = new LinkedHashMap<>();
+        for (RetrievedChunk hit : hits) {
+            if (hit.chunkIndex() == null) {
+                continue;
+            }
+            byDocument.computeIfAbsent(hit.documentId(), id -> new ArrayList<>()).add(new ChunkWindow(
+                    hit.documentId(), Math.max(0, hit.chunkIndex() - window), hit.chunkIndex() + window, hit.score()));
+        }
+
+        List<ChunkWindow> merged = new ArrayList<>();
+        for (List<ChunkWindow> windows : byDocument.values()) {
+            windows.sort(Comparator.comparingInt(ChunkWindow::lo));
+            ChunkWindow current = windows.get(0);
+            for (ChunkWindow next : windows.subList(1, windows.size())) {
+                if (next.lo() <= current.hi() + 1) {
+                    current = new ChunkWindow(current.documentId(), current.lo(),
+                            Math.max(current.hi(), next.hi()), Math.max(current.score(), next.score()));
+                } else {
+                    merged.add(current);
+                    current = next;
+                }
+            }
+            merged.add(current);
+        }
+        return merged;
+    }
+
+    private String toJson(List<ChunkWindow> windows) {
+        return windows.stream()
+                .map(w -> String.format(Locale.ROOT, WINDOW_JSON, w.documentId(), w.lo(), w.hi(), w.score()))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private List<RetrievedChunk> toRetrievedChunks(List<ChunkEmbeddingRepository.SimilarChunk> matches) {
+        return matches.stream()
+                .map(match -> new RetrievedChunk(
+                        match.getChunkId(),
+                        match.getDocumentId(),
+                        match.getChunkIndex(),
+                        match.getContent(),
+                        1 - match.getDistance()))
+                .toList();
+    }
+
+    // Identifies the state of the documents an answer in this scope can draw on.
+    public SemanticAnswerCache.Version contentVersion(SemanticAnswerCache.Scope scope) {
+        String modelVersion = versionService.active().version();
+        DocumentEmbeddingRepository.ContentVersion version = scope.documentId() != null
+                ? documentEmbeddingRepository.findDocumentVersion(scope.documentId(), modelVersion)
+                : documentEmbeddingRepository.findLibraryVersion(scope.userId(), modelVersion);
+        return new SemanticAnswerCache.Version(version.getDocuments(), version.getUpdatedAt());
+    }
+
+    public boolean canAccessDocument(UUID documentId, UUID userId) {
+        return embeddingRepository.existsByDocumentIdAndUserId(documentId, userId);
     }
 
     @Transactional
     public void deleteByDocumentId(UUID documentId) {
         embeddingRepository.deleteByDocumentId(documentId);
+        documentEmbeddingRepository.deleteByDocumentId(documentId);
+        afterCommit(() -> answerCache.invalidateDocument(documentId));
     }
 
-    private String toVectorString(float[] vector) {
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static String toVectorString(float[] vector) {
         return "[" + Arrays.stream(toDoubleArray(vector))
                 .mapToObj(String::valueOf)
                 .collect(Collectors.joining(",")) + "]";
     }
 
-    private double[] toDoubleArray(float[] floats) {
+    private static double[] toDoubleArray(float[] floats) {
         double[] doubles = new double[floats.length];
         for (int i = 0; i < floats.length; i++) {
             doubles[i] = floats[i];
@@ -69,5 +344,9 @@ public class EmbeddingService {
         return doubles;
     }
 
-    public record ChunkData(UUID chunkId, String content) {}
+    public record ChunkData(UUID chunkId, int chunkIndex, String content) {}
+
+    record ChunkWindow(UUID documentId, int lo, int hi, double score) {}
+
+    public record RetrievedChunk(UUID chunkId, UUID documentId, Integer chunkIndex, String content, double score) {}
 }
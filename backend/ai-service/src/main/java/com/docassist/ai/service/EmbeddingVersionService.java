@@ -0,0 +1,166 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.entity.EmbeddingVersion;
+import com.docassist.ai.entity.EmbeddingVersionStatus;
+import com.docassist.ai.repository.EmbeddingVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Tracks which embedding version queries are pinned to (ACTIVE) and which one is being
+// backfilled (MIGRATING). Configuring a new app.embedding.version registers it as MIGRATING;
+// ReembeddingWorker then fills it in and activates it once every chunk has a vector.
+@Service
+@Slf4j
+public class EmbeddingVersionService {
+
+    private final EmbeddingVersionRepository versionRepository;
+    private final SemanticAnswerCache answerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final EmbeddingSpec configured;
+
+    private volatile Versions current;
+
+    public EmbeddingVersionService(EmbeddingVersionRepository versionRepository,
+                                   SemanticAnswerCache answerCache,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.embedding.version:text-embedding-3-small}") String version,
+                                   @Value("${app.embedding.model:text-embedding-3-small}") String model,
+                                   @Value("${app.embedding.dimensions:1536}") int dimensions) {
+        this.versionRepository = versionRepository;
+        this.answerCache = answerCache;
+        this.transactionTemplate = transactionTemplate;
+        this.configured = new EmbeddingSpec(version, model, dimensions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerConfiguredVersion() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<EmbeddingVersion> active = versionRepository.findFirstByStatus(EmbeddingVersionStatus.ACTIVE);
+                if (active.isEmpty()) {
+                    versionRepository.save(newVersion(configured, EmbeddingVersionStatus.ACTIVE));
+                    log.info("Registered embedding version {} as active", configured.version());
+                } else if (!active.get().getVersion().equals(configured.version())
+                        && !versionRepository.existsById(configured.version())) {
+                    // Starting a new migration abandons any unfinished one.
+                    versionRepository.updateStatus(EmbeddingVersionStatus.MIGRATING, EmbeddingVersionStatus.RETIRED);
+                    versionRepository.save(newVersion(configured, EmbeddingVersionStatus.MIGRATING));
+                    log.info("Registered embedding version {} for migration from {}",
+                            configured.version(), active.get().getVersion());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Embedding version {} was registered concurrently", configured.version());
+        }
+        refresh();
+    }
+
+    public EmbeddingSpec active() {
+        return versions().active();
+    }
+
+    public Optional<EmbeddingSpec> migrating() {
+        return Optional.ofNullable(versions().migrating());
+    }
+
+    // During a migration new chunks are written under both versions so the target never falls behind.
+    public List<EmbeddingSpec> writeVersions() {
+        Versions versions = versions();
+        return versions.migrating() == null
+                ? List.of(versions.active())
+                : List.of(versions.active(), versions.migrating());
+    }
+
+    // Other instances may keep querying the previous version until their next refresh, so
+    // retired versions only become deletable once the active one has been live for the grace period.
+    public List<String> retiredVersions(Duration grace) {
+        boolean settled = versionRepository.findFirstByStatus(EmbeddingVersionStatus.ACTIVE)
+                .map(EmbeddingVersion::getActivatedAt)
+                .map(activatedAt -> activatedAt.plus(grace).isBefore(LocalDateTime.now()))
+                .orElse(false);
+        if (!settled) {
+            return List.of();
+        }
+        return versionRepository.findByStatus(EmbeddingVersionStatus.RETIRED).stream()
+                .map(EmbeddingVersion::getVersion)
+                .toList();
+    }
+
+    public boolean acquireLease(String version, String owner, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                versionRepository.acquireLease(version, owner, now.plus(duration), now));
+        return updated != null && updated > 0;
+    }
+
+    // Retiring the old version and activating the new one commit together, so every query
+    // sees exactly one active version.
+    public void activate(String version) {
+        Boolean activated = transactionTemplate.execute(status -> {
+            versionRepository.updateStatus(EmbeddingVersionStatus.ACTIVE, EmbeddingVersionStatus.RETIRED);
+            if (versionRepository.activate(version, LocalDateTime.now()) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(activated)) {
+            log.info("Embedding version {} is now active", version);
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.embedding.versions.refresh-interval:30s}")
+    public void refresh() {
+        EmbeddingSpec active = versionRepository.findFirstByStatus(EmbeddingVersionStatus.ACTIVE)
+                .map(this::toSpec)
+                .orElse(configured);
+        EmbeddingSpec migrating = versionRepository.findFirstByStatus(EmbeddingVersionStatus.MIGRATING)
+                .map(this::toSpec)
+                .orElse(null);
+
+        Versions previous = current;
+        current = new Versions(active, migrating);
+        if (previous != null && !previous.active().equals(active)) {
+            answerCache.clear();
+        }
+    }
+
+    private Versions versions() {
+        Versions versions = current;
+        if (versions == null) {
+            refresh();
+            versions = current;
+        }
+        return versions;
+    }
+
+    private EmbeddingVersion newVersion(EmbeddingSpec spec, EmbeddingVersionStatus status) {
+        return EmbeddingVersion.builder()
+                .version(spec.version())
+                .model(spec.model())
+                .dimensions(spec.dimensions())
+                .status(status)
+                .activatedAt(status == EmbeddingVersionStatus.ACTIVE ? LocalDateTime.now() : null)
+                .build();
+    }
+
+    private EmbeddingSpec toSpec(EmbeddingVersion version) {
+        return new EmbeddingSpec(version.getVersion(), version.getModel(), version.getDimensions());
+    }
+
+    public record EmbeddingSpec(String version, String model, int dimensions) {}
+
+    private record Versions(EmbeddingSpec active, EmbeddingSpec migrating) {}
+}
@@ -0,0 +1,33 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.ChatSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Fills in message_count for sessions created before the column existed, which would otherwise
+// report no messages and wrong page totals. Only rows still at 0 that have messages are touched,
+// so running it on every startup, or on several instances at once, is harmless.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageCountBackfill {
+
+    private final ChatSessionRepository sessionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> sessionRepository.backfillMessageCounts());
+            if (updated != null && updated > 0) {
+                log.info("Backfilled message counts for {} chat sessions", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Message count backfill failed, will retry on next startup", e);
+        }
+    }
+}
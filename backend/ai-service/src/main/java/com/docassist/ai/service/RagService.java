@@ -1,15 +1,34 @@
 package com.docassist.ai.service;
 
-import com.docassist.ai.entity.ChunkEmbedding;
 import com.docassist.ai.entity.SourceChunk;
+import com.docassist.ai.provider.ProviderGovernors;
+import com.docassist.common.exception.DeadlineExceededException;
+import com.docassist.common.exception.ServiceUnavailableException;
+import com.docassist.common.web.RequestDeadline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,59 +36,391 @@ import java.util.stream.Collectors;
 @Slf4j
 public class RagService {
 
+    private static final String NO_CONTEXT_ANSWER =
+            "I couldn't find any relevant information in your documents to answer this question.";
+
+    private static final String SYSTEM_PROMPT = """
+            You are DocAssist, an AI assistant that answers questions based on document content.
+            Use ONLY the provided context to answer the question. If the context doesn't contain
+            enough information, say so clearly. Do not make up information.
+
+            Be concise and accurate. Cite which parts of the context support your answer.
+            """;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final EmbeddingService embeddingService;
     private final ChatClient.Builder chatClientBuilder;
+    private final SemanticAnswerCache answerCache;
+    private final ContextPacker contextPacker;
+    private final ProviderGovernors providerGovernors;
+
+    // Identical questions in the same scope share one embedding, search and completion.
+    // Scopes match the answer cache, so a document-wide answer is only shared with callers
+    // that passed the document access check first. Blocking answers and streams are tracked
+    // separately, and either kind of request can join either kind of computation.
+    private final Map<InFlightKey, CompletableFuture<RagResult>> inFlight = new ConcurrentHashMap<>();
+    private final Map<InFlightKey, CompletableFuture<RagStream>> inFlightStreams = new ConcurrentHashMap<>();
 
     @Value("${app.rag.top-k:5}")
     private int topK;
 
+    @Value("${app.rag.snippet-chars:200}")
+    private int snippetChars;
+
+    @Value("${app.rag.score-threshold:0.3}")
+    private double scoreThreshold;
+
+    @Value("${app.rag.adaptive.min-k:1}")
+    private int minK;
+
+    @Value("${app.rag.adaptive.min-score-gap:0.08}")
+    private double minScoreGap;
+
+    @Value("${app.rag.adaptive.relative-score-floor:0.75}")
+    private double relativeScoreFloor;
+
+    @Value("${app.rag.neighbor-window:0}")
+    private int neighborWindow;
+
+    @Value("${app.rag.batch.search-concurrency:4}")
+    private int batchSearchConcurrency;
+
+    @Value("${app.rag.batch.chat-concurrency:4}")
+    private int batchChatConcurrency;
+
     public RagResult answerQuestion(String question, UUID userId, UUID documentId) {
-        List<ChunkEmbedding> relevantChunks = embeddingService.searchSimilar(
-                question, userId, documentId, topK);
+        if (documentId != null && !embeddingService.canAccessDocument(documentId, userId)) {
+            return new RagResult(NO_CONTEXT_ANSWER, List.of(), 0);
+        }
+
+        SemanticAnswerCache.Scope scope = cacheScope(userId, documentId);
+        InFlightKey key = new InFlightKey(normalize(question), scope);
+
+        CompletableFuture<RagStream> streaming = inFlightStreams.get(key);
+        if (streaming != null) {
+            log.debug("Joining in-flight stream for an identical question");
+            RagStream shared = await(streaming);
+            String answer = await(shared.tokens().collect(Collectors.joining()).toFuture());
+            return new RagResult(answer, shared.sources(), 0);
+        }
+
+        CompletableFuture<RagResult> computation = new CompletableFuture<>();
+        CompletableFuture<RagResult> existing = inFlight.putIfAbsent(key, computation);
+        if (existing != null) {
+            log.debug("Joining in-flight answer for an identical question");
+            RagResult shared = await(existing);
+            return new RagResult(shared.answer(), shared.sources(), 0);
+        }
+
+        try {
+            RagResult result = computeAnswer(question, userId, documentId, scope);
+            computation.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            computation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    private RagResult computeAnswer(String question, UUID userId, UUID documentId, SemanticAnswerCache.Scope scope) {
+        float[] questionVector = embeddingService.embed(question);
+        return complete(prepare(question, questionVector, userId, documentId, scope));
+    }
+
+    public RagStream streamAnswer(String question, UUID userId, UUID documentId) {
+        if (documentId != null && !embeddingService.canAccessDocument(documentId, userId)) {
+            return new RagStream(List.of(), Flux.just(NO_CONTEXT_ANSWER), 0);
+        }
+
+        SemanticAnswerCache.Scope scope = cacheScope(userId, documentId);
+        InFlightKey key = new InFlightKey(normalize(question), scope);
+        CompletableFuture<RagResult> answering = inFlight.get(key);
+        if (answering != null) {
+            RagResult shared = await(answering);
+            return new RagStream(shared.sources(), Flux.just(shared.answer()), 0);
+        }
+
+        CompletableFuture<RagStream> stream = new CompletableFuture<>();
+        CompletableFuture<RagStream> existing = inFlightStreams.putIfAbsent(key, stream);
+        if (existing != null) {
+            log.debug("Joining in-flight stream for an identical question");
+            RagStream shared = await(existing);
+            return new RagStream(shared.sources(), shared.tokens(), 0);
+        }
+
+        try {
+            RagStream started = startStream(question, userId, documentId, scope, key, stream);
+            stream.complete(started);
+            return started;
+        } catch (RuntimeException e) {
+            inFlightStreams.remove(key, stream);
+            stream.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private RagStream startStream(String question, UUID userId, UUID documentId, SemanticAnswerCache.Scope scope,
+                                  InFlightKey key, CompletableFuture<RagStream> entry) {
+        float[] questionVector = embeddingService.embed(question);
+        PreparedQuestion prepared = prepare(question, questionVector, userId, documentId, scope);
+        if (prepared.answered() != null) {
+            inFlightStreams.remove(key, entry);
+            return new RagStream(prepared.answered().sources(), Flux.just(prepared.answered().answer()), 0);
+        }
+
+        // Once the stream starts, the client's connection bounds it: closing it cancels generation.
+        RequestDeadline.check("generation");
+        int promptTokens = estimatePromptTokens(prepared.userPrompt());
+        log.info("Streaming answer with {} context chunks (~{} prompt tokens)",
+                prepared.context().chunks().size(), promptTokens);
+
+        List<SourceChunk> sources = toSources(prepared.context().chunks());
+        // Every subscriber to the shared stream, including requests that joined later, receives
+        // the answer from its first token, even after generation has finished. Generation is
+        // cancelled once all of them have gone. The entry is released before subscribers see the
+        // stream end, so no new request joins a finished or abandoned stream.
+        Flux<String> generation = Flux.defer(() -> {
+                    StringBuilder answer = new StringBuilder();
+                    return providerGovernors.chat()
+                            .stream(promptTokens, () -> prompt(prepared.userPrompt()).stream().content())
+                            .doOnNext(answer::append)
+                            .doOnComplete(() -> answerCache.put(scope, prepared.version(), questionVector,
+                                    new RagResult(answer.toString(), sources, promptTokens)));
+                })
+                .doOnTerminate(() -> inFlightStreams.remove(key, entry))
+                .doOnCancel(() -> inFlightStreams.remove(key, entry));
+        Flux<String> tokens = new SharedReplay<>(generation).flux();
+
+        return new RagStream(sources, tokens, promptTokens);
+    }
+
+    // All questions are embedded in one batched provider call up front. Vector searches then run
+    // with at most batchSearchConcurrency in parallel and completions with at most
+    // batchChatConcurrency, and each answer is emitted as soon as it is ready.
+    public Flux<BatchItem> answerBatch(List<String> questions, UUID userId, UUID documentId) {
+        if (documentId != null && !embeddingService.canAccessDocument(documentId, userId)) {
+            return Flux.range(0, questions.size())
+                    .map(i -> new BatchItem(i, questions.get(i), new RagResult(NO_CONTEXT_ANSWER, List.of(), 0), null));
+        }
+
+        SemanticAnswerCache.Scope scope = cacheScope(userId, documentId);
+        List<float[]> vectors = embeddingService.embedAll(questions);
+        log.info("Answering batch of {} questions", questions.size());
+
+        return Flux.range(0, questions.size())
+                .flatMap(i -> Mono.fromCallable(() -> prepare(questions.get(i), vectors.get(i), userId, documentId, scope))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .map(prepared -> new IndexedQuestion(i, prepared))
+                        .onErrorResume(e -> Mono.just(new IndexedQuestion(i, null))), batchSearchConcurrency)
+                .flatMap(item -> answerBatchItem(item, questions.get(item.index())), batchChatConcurrency);
+    }
+
+    private Mono<BatchItem> answerBatchItem(IndexedQuestion item, String question) {
+        if (item.prepared() == null) {
+            return Mono.just(new BatchItem(item.index(), question, null, "Retrieval failed"));
+        }
+        return Mono.fromCallable(() -> complete(item.prepared()))
+                .subscribeOn(Schedulers.boundedElastic())
+                // A full chat bulkhead should slow the batch down rather than fail its questions.
+                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1))
+                        .filter(ServiceUnavailableException.class::isInstance))
+                .map(result -> new BatchItem(item.index(), question, result, null))
+                .onErrorResume(e -> {
+                    log.warn("Batch question {} failed", item.index(), e);
+                    return Mono.just(new BatchItem(item.index(), question, null, "Failed to generate an answer"));
+                });
+    }
+
+    private PreparedQuestion prepare(String question, float[] questionVector, UUID userId, UUID documentId,
+                                     SemanticAnswerCache.Scope scope) {
+        // Read before retrieval, so a document changed meanwhile makes the stored answer stale.
+        SemanticAnswerCache.Version version = embeddingService.contentVersion(scope);
+        Optional<RagResult> cached = answerCache.get(scope, version, questionVector);
+        if (cached.isPresent()) {
+            return PreparedQuestion.withAnswer(new RagResult(cached.get().answer(), cached.get().sources(), 0));
+        }
+
+        List<EmbeddingService.RetrievedChunk> relevantChunks = retrieve(questionVector, userId, documentId);
 
         if (relevantChunks.isEmpty()) {
-            return new RagResult(
-                    "I couldn't find any relevant information in your documents to answer this question.",
-                    List.of());
+            return PreparedQuestion.withAnswer(new RagResult(NO_CONTEXT_ANSWER, List.of(), 0));
+        }
+
+        ContextPacker.PackedContext context = contextPacker.pack(relevantChunks);
+        return new PreparedQuestion(scope, version, questionVector, context, userPrompt(question, context), null);
+    }
+
+    private RagResult complete(PreparedQuestion prepared) {
+        if (prepared.answered() != null) {
+            return prepared.answered();
+        }
+
+        String userPrompt = prepared.userPrompt();
+        ChatResponse response = providerGovernors.chat().call(estimatePromptTokens(userPrompt),
+                () -> prompt(userPrompt).call().chatResponse());
+        String answer = response.getResult().getOutput().getContent();
+        int promptTokens = promptTokens(response, userPrompt);
+        log.info("Answered question with {} context chunks ({} prompt tokens)",
+                prepared.context().chunks().size(), promptTokens);
+
+        RagResult result = new RagResult(answer, toSources(prepared.context().chunks()), promptTokens);
+        answerCache.put(prepared.scope(), prepared.version(), prepared.questionVector(), result);
+        return result;
+    }
+
+    public List<SourceChunk> findSources(String query, UUID userId, UUID documentId) {
+        if (documentId != null && !embeddingService.canAccessDocument(documentId, userId)) {
+            return List.of();
+        }
+
+        float[] queryVector = embeddingService.embed(query);
+        List<EmbeddingService.RetrievedChunk> candidates = embeddingService.searchSimilarPrefixes(
+                queryVector, userId, documentId, scoreThreshold, topK, snippetChars);
+        return toSources(adaptiveCutoff(candidates));
+    }
+
+    // Fills in snippets for stored source references with one chunk-store query for the whole batch.
+    public void hydrateSnippets(List<SourceChunk> sources, UUID userId) {
+        Map<UUID, String> prefixes = embeddingService.chunkPrefixes(
+                sources.stream().map(SourceChunk::getChunkId).collect(Collectors.toSet()), userId, snippetChars);
+        for (SourceChunk source : sources) {
+            String prefix = prefixes.get(source.getChunkId());
+            source.setContent(prefix != null ? snippet(prefix) : null);
+        }
+    }
+
+    // Snippets come from any of the user's documents, so they change with the library version.
+    public SemanticAnswerCache.Version snippetsVersion(UUID userId) {
+        return embeddingService.contentVersion(SemanticAnswerCache.Scope.forUser(userId));
+    }
+
+    private List<EmbeddingService.RetrievedChunk> retrieve(float[] questionVector, UUID userId, UUID documentId) {
+        List<EmbeddingService.RetrievedChunk> candidates = embeddingService.searchSimilar(
+                questionVector, userId, documentId, scoreThreshold, topK);
+        List<EmbeddingService.RetrievedChunk> selected = adaptiveCutoff(candidates);
+        if (selected.size() < candidates.size()) {
+            log.debug("Adaptive cutoff kept {} of {} chunks", selected.size(), candidates.size());
+        }
+        return embeddingService.expandNeighbors(selected, userId, neighborWindow);
+    }
+
+    // Candidates arrive sorted by score. Cut at the largest drop between neighbours when it is
+    // at least minScoreGap, and drop anything scoring below relativeScoreFloor of the best match.
+    List<EmbeddingService.RetrievedChunk> adaptiveCutoff(List<EmbeddingService.RetrievedChunk> candidates) {
+        if (candidates.size() <= minK) {
+            return candidates;
+        }
+
+        double best = candidates.get(0).score();
+        int cut = candidates.size();
+        double largestGap = minScoreGap;
+        for (int i = 1; i < candidates.size(); i++) {
+            double score = candidates.get(i).score();
+            if (score < best * relativeScoreFloor) {
+                cut = Math.min(cut, i);
+                break;
+            }
+            double gap = candidates.get(i - 1).score() - score;
+            if (gap >= largestGap) {
+                largestGap = gap;
+                cut = i;
+            }
         }
+        return candidates.subList(0, Math.max(minK, cut));
+    }
 
-        String context = relevantChunks.stream()
-                .map(ChunkEmbedding::getContent)
-                .collect(Collectors.joining("\n\n---\n\n"));
+    // Waits for another request's computation, but no longer than this request's own deadline.
+    private <T> T await(CompletableFuture<T> computation) {
+        CompletableFuture<T> waited = RequestDeadline.remaining()
+                .map(remaining -> computation.copy().orTimeout(remaining.toNanos(), TimeUnit.NANOSECONDS))
+                .orElse(computation);
+        try {
+            return waited.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new DeadlineExceededException("shared answer");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        String systemPrompt = """
-                You are DocAssist, an AI assistant that answers questions based on document content.
-                Use ONLY the provided context to answer the question. If the context doesn't contain
-                enough information, say so clearly. Do not make up information.
+    static String normalize(String question) {
+        return WHITESPACE.matcher(question.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
 
-                Be concise and accurate. Cite which parts of the context support your answer.
-                """;
+    private SemanticAnswerCache.Scope cacheScope(UUID userId, UUID documentId) {
+        return documentId != null
+                ? SemanticAnswerCache.Scope.forDocument(documentId)
+                : SemanticAnswerCache.Scope.forUser(userId);
+    }
 
-        String userPrompt = String.format("""
+    private String userPrompt(String question, ContextPacker.PackedContext context) {
+        return String.format("""
                 Context from documents:
                 %s
 
                 Question: %s
 
-                Answer based on the context above:""", context, question);
+                Answer based on the context above:""", context.text(), question);
+    }
 
+    private ChatClient.ChatClientRequestSpec prompt(String userPrompt) {
         ChatClient chatClient = chatClientBuilder.build();
-        String answer = chatClient.prompt()
-                .system(systemPrompt)
-                .user(userPrompt)
-                .call()
-                .content();
+        return chatClient.prompt()
+                .system(SYSTEM_PROMPT)
+                .user(userPrompt);
+    }
 
-        List<SourceChunk> sources = relevantChunks.stream()
+    private int promptTokens(ChatResponse response, String userPrompt) {
+        Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        Number reported = usage != null ? usage.getPromptTokens() : null;
+        if (reported != null && reported.intValue() > 0) {
+            return reported.intValue();
+        }
+        return estimatePromptTokens(userPrompt);
+    }
+
+    private int estimatePromptTokens(String userPrompt) {
+        return ContextPacker.estimateTokens(SYSTEM_PROMPT) + ContextPacker.estimateTokens(userPrompt);
+    }
+
+    private List<SourceChunk> toSources(List<EmbeddingService.RetrievedChunk> relevantChunks) {
+        return relevantChunks.stream()
                 .map(chunk -> SourceChunk.builder()
-                        .chunkId(chunk.getChunkId())
-                        .documentId(chunk.getDocumentId())
-                        .content(chunk.getContent().substring(0, Math.min(200, chunk.getContent().length())) + "...")
+                        .chunkId(chunk.chunkId())
+                        .documentId(chunk.documentId())
+                        .content(snippet(chunk.content()))
+                        .score(chunk.score())
                         .build())
                 .toList();
+    }
 
-        return new RagResult(answer, sources);
+    private String snippet(String content) {
+        return content.length() > snippetChars ? content.substring(0, snippetChars) + "..." : content;
     }
 
-    public record RagResult(String answer, List<SourceChunk> sources) {}
+    private record InFlightKey(String question, SemanticAnswerCache.Scope scope) {}
+
+    // Either an answer that needs no completion (cache hit, no context) or the packed prompt.
+    private record PreparedQuestion(SemanticAnswerCache.Scope scope, SemanticAnswerCache.Version version,
+                                    float[] questionVector, ContextPacker.PackedContext context, String userPrompt,
+                                    RagResult answered) {
+        static PreparedQuestion withAnswer(RagResult result) {
+            return new PreparedQuestion(null, null, null, null, null, result);
+        }
+    }
+
+    private record IndexedQuestion(int index, PreparedQuestion prepared) {}
+
+    public record RagResult(String answer, List<SourceChunk> sources, int promptTokens) {}
+
+    public record RagStream(List<SourceChunk> sources, Flux<String> tokens, int promptTokens) {}
+
+    public record BatchItem(int index, String question, RagResult result, String error) {}
 }
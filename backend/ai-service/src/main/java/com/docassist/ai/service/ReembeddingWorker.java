@@ -0,0 +1,103 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.ChunkEmbeddingRepository;
+import com.docassist.ai.repository.DocumentEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Backfills the migrating embedding version a few batches per tick, so re-embedding stays
+// within a fixed share of the provider budget. Progress lives in the table itself, and the
+// worker resumes after a restart. Once no chunk is missing, the new version is activated and
+// later ticks delete the retired version's rows.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReembeddingWorker {
+
+    private final EmbeddingVersionService versionService;
+    private final EmbeddingService embeddingService;
+    private final ChunkEmbeddingRepository embeddingRepository;
+    private final DocumentEmbeddingRepository documentEmbeddingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${app.embedding.reembed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.embedding.reembed.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.embedding.reembed.batches-per-run:2}")
+    private int batchesPerRun;
+
+    @Value("${app.embedding.reembed.lease:1m}")
+    private Duration lease;
+
+    @Value("${app.embedding.reembed.retired-grace:5m}")
+    private Duration retiredGrace;
+
+    @Scheduled(fixedDelayString = "${app.embedding.reembed.interval:5s}",
+            initialDelayString = "${app.embedding.reembed.interval:5s}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Optional<EmbeddingVersionService.EmbeddingSpec> target = versionService.migrating();
+            if (target.isPresent()) {
+                migrate(target.get());
+            } else {
+                deleteRetired();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Re-embedding run failed, will retry", e);
+        }
+    }
+
+    void migrate(EmbeddingVersionService.EmbeddingSpec target) {
+        if (!versionService.acquireLease(target.version(), instanceId, lease)) {
+            return;
+        }
+        String source = versionService.active().version();
+
+        for (int i = 0; i < batchesPerRun; i++) {
+            List<ChunkEmbeddingRepository.PendingChunk> pending =
+                    embeddingRepository.findChunksMissingVersion(source, target.version(), batchSize);
+            if (pending.isEmpty()) {
+                log.info("Embedding version {} covers every chunk, activating it", target.version());
+                versionService.activate(target.version());
+                return;
+            }
+            embeddingService.storeVersion(target, pending);
+        }
+
+        log.info("Re-embedding to {}: {} of {} chunks done", target.version(),
+                embeddingRepository.countByModelVersion(target.version()),
+                embeddingRepository.countByModelVersion(source));
+    }
+
+    void deleteRetired() {
+        for (String version : versionService.retiredVersions(retiredGrace)) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                int rows = embeddingRepository.deleteVersionBatch(version, batchSize * batchesPerRun);
+                if (rows == 0) {
+                    documentEmbeddingRepository.deleteByModelVersion(version);
+                }
+                return rows;
+            });
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} embeddings of retired version {}", deleted, version);
+            }
+        }
+    }
+}
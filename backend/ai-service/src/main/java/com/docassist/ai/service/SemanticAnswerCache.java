@@ -0,0 +1,185 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.entity.SourceChunk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+// Each entry records the version of the documents its scope covered when it was answered and is
+// only served while that version is current. Versions are read from the database, so documents
+// embedded or deleted through another instance retire entries here too; the invalidate methods
+// only free memory early on the instance that made the change.
+@Component
+@Slf4j
+public class SemanticAnswerCache {
+
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    private final Map<Scope, List<Entry>> entriesByScope = new HashMap<>();
+    private final LinkedHashMap<Long, Entry> entriesByRecency = new LinkedHashMap<>(16, 0.75f, true);
+    private long nextId;
+
+    public SemanticAnswerCache(
+            @Value("${app.rag.cache.enabled:true}") boolean enabled,
+            @Value("${app.rag.cache.similarity-threshold:0.97}") double similarityThreshold,
+            @Value("${app.rag.cache.ttl:1h}") Duration ttl,
+            @Value("${app.rag.cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized Optional<RagService.RagResult> get(Scope scope, Version version, float[] questionVector) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        List<Entry> entries = entriesByScope.get(scope);
+        if (entries == null) {
+            return Optional.empty();
+        }
+
+        Instant now = Instant.now();
+        Entry best = null;
+        double bestSimilarity = similarityThreshold;
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (!entry.expiresAt().isAfter(now) || !Objects.equals(entry.version(), version)) {
+                it.remove();
+                entriesByRecency.remove(entry.id());
+                continue;
+            }
+            double similarity = cosineSimilarity(questionVector, entry.questionVector());
+            if (similarity >= bestSimilarity) {
+                best = entry;
+                bestSimilarity = similarity;
+            }
+        }
+        if (entries.isEmpty()) {
+            entriesByScope.remove(scope);
+        }
+
+        if (best == null) {
+            return Optional.empty();
+        }
+
+        entriesByRecency.get(best.id());
+        log.debug("Answer cache hit for scope {} (similarity {})", scope, bestSimilarity);
+        return Optional.of(best.result());
+    }
+
+    public synchronized void put(Scope scope, Version version, float[] questionVector, RagService.RagResult result) {
+        if (!enabled || maxEntries <= 0) {
+            return;
+        }
+
+        Entry entry = new Entry(nextId++, scope, version, questionVector, result, Instant.now().plus(ttl));
+        entriesByScope.computeIfAbsent(scope, s -> new ArrayList<>()).add(entry);
+        entriesByRecency.put(entry.id(), entry);
+
+        while (entriesByRecency.size() > maxEntries) {
+            Iterator<Entry> eldest = entriesByRecency.values().iterator();
+            removeFromScope(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidateDocument(UUID documentId) {
+        entriesByRecency.values().removeIf(entry -> {
+            boolean stale = documentId.equals(entry.scope().documentId()) || cites(entry, documentId);
+            if (stale) {
+                removeFromScope(entry);
+            }
+            return stale;
+        });
+    }
+
+    public synchronized void invalidateUser(UUID userId) {
+        List<Entry> entries = entriesByScope.remove(Scope.forUser(userId));
+        if (entries != null) {
+            entries.forEach(entry -> entriesByRecency.remove(entry.id()));
+        }
+    }
+
+    // Cached vectors belong to one embedding version; called when the active version changes.
+    public synchronized void clear() {
+        entriesByScope.clear();
+        entriesByRecency.clear();
+    }
+
+    public synchronized int size() {
+        return entriesByRecency.size();
+    }
+
+    private void removeFromScope(Entry entry) {
+        List<Entry> entries = entriesByScope.get(entry.scope());
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                entriesByScope.remove(entry.scope());
+            }
+        }
+    }
+
+    private boolean cites(Entry entry, UUID documentId) {
+        for (SourceChunk source : entry.result().sources()) {
+            if (documentId.equals(source.getDocumentId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static double cosineSimilarity(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) {
+            return 0;
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    // Document-scoped answers are shared by every caller allowed to read the document;
+    // library-wide answers (no documentId) are only reused by the same user.
+    public record Scope(UUID userId, UUID documentId) {
+        public static Scope forDocument(UUID documentId) {
+            return new Scope(null, documentId);
+        }
+
+        public static Scope forUser(UUID userId) {
+            return new Scope(userId, null);
+        }
+    }
+
+    // Number of embedded documents in a scope and when the latest of them was (re)embedded.
+    public record Version(long documents, LocalDateTime updatedAt) {}
+
+    private record Entry(long id, Scope scope, Version version, float[] questionVector,
+                         RagService.RagResult result, Instant expiresAt) {}
+}
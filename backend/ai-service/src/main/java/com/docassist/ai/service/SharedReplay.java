@@ -0,0 +1,73 @@
+package com.docassist.ai.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+// One subscription to the source, shared by every subscriber and replayed to each from the first
+// element. Unlike replay().refCount(), a subscriber arriving after the source has ended gets the
+// recorded sequence instead of restarting it. The source is cancelled once every subscriber has
+// left before it ended; anyone subscribing after that starts a fresh, unshared run.
+final class SharedReplay<T> {
+
+    private final Flux<T> source;
+    private final ConnectableFlux<T> replay;
+
+    private boolean connected;
+    private Disposable connection;
+    private int subscribers;
+    private boolean terminated;
+    private boolean cancelled;
+
+    SharedReplay(Flux<T> source) {
+        this.source = source;
+        this.replay = source.doOnTerminate(this::terminated).replay();
+    }
+
+    Flux<T> flux() {
+        return Flux.defer(() -> {
+            boolean connect;
+            synchronized (this) {
+                if (cancelled) {
+                    return source;
+                }
+                subscribers++;
+                connect = !connected;
+                connected = true;
+            }
+            // The replay records every element, so connecting before this subscriber attaches
+            // loses nothing.
+            if (connect) {
+                Disposable started = replay.connect();
+                boolean abandoned;
+                synchronized (this) {
+                    connection = started;
+                    abandoned = cancelled;
+                }
+                if (abandoned) {
+                    started.dispose();
+                }
+            }
+            return replay.doFinally(this::left);
+        });
+    }
+
+    private synchronized void terminated() {
+        terminated = true;
+    }
+
+    private void left(SignalType signal) {
+        Disposable abandoned = null;
+        synchronized (this) {
+            subscribers--;
+            if (subscribers == 0 && !terminated && signal == SignalType.CANCEL) {
+                cancelled = true;
+                abandoned = connection;
+            }
+        }
+        if (abandoned != null) {
+            abandoned.dispose();
+        }
+    }
+}
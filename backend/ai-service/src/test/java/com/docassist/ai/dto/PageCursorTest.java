@@ -0,0 +1,49 @@
+package com.docassist.ai.dto;
+
+import com.docassist.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void decode_EncodedCursor_RoundTrips() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 1, 1, 12, 0, 30, 123_456_000), UUID.randomUUID());
+
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_NoCursor_StartsFromTheFirstPage() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void decode_NotBase64_IsBadRequest() {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor!"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void decode_MissingSeparator_IsBadRequest() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("2026-01-01T12:00".getBytes());
+
+        assertThatThrownBy(() -> PageCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void decode_InvalidId_IsBadRequest() {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("2026-01-01T12:00|42".getBytes());
+
+        assertThatThrownBy(() -> PageCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.docassist.ai.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HashingEmbeddingModelTest {
+
+    private final HashingEmbeddingModel model =
+            new HashingEmbeddingModel(256, new LatencyDistribution(Duration.ZERO, 0));
+
+    @Test
+    void vector_SameText_IsDeterministicAndNormalized() {
+        float[] first = model.vector("What is the notice period?");
+        float[] second = model.vector("What is the notice period?");
+
+        assertThat(first).containsExactly(second);
+        assertThat(dot(first, first)).isCloseTo(1.0, within(1e-5));
+    }
+
+    @Test
+    void vector_SharedVocabulary_ScoresHigherThanUnrelatedText() {
+        float[] question = model.vector("termination notice period");
+        float[] related = model.vector("the notice period for termination is thirty days");
+        float[] unrelated = model.vector("quarterly revenue grew in europe");
+
+        assertThat(dot(question, related))
+                .isGreaterThan(dot(question, unrelated) + 0.3);
+    }
+
+    // Vectors are unit length, so the dot product is their cosine similarity.
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,155 @@
+package com.docassist.ai.provider;
+
+import com.docassist.common.exception.DeadlineExceededException;
+import com.docassist.common.exception.ServiceUnavailableException;
+import com.docassist.common.web.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderGovernorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ProviderGovernor governor;
+
+    @AfterEach
+    void tearDown() {
+        if (governor != null) {
+            governor.close();
+        }
+    }
+
+    @Test
+    void call_SlowerThanTimeout_FailsAndShrinksLimit() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofMillis(50), 5), registry);
+
+        assertThatThrownBy(() -> governor.call(1, () -> {
+            sleep(500);
+            return "late";
+        })).isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(registry.get("ai.provider.limit").gauge().value()).isLessThan(4);
+        assertThat(registry.get("ai.provider.rejections").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void call_RequestDeadlineBeforeTimeout_AbortsWithoutCountingAsFailure() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofSeconds(5), 1), registry);
+        Instant deadline = Instant.now().plusMillis(100);
+
+        assertThatThrownBy(() -> RequestDeadline.callWith(deadline, () -> governor.call(1, () -> {
+            sleep(2000);
+            return "late";
+        }))).isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(registry.get("ai.provider.limit").gauge().value()).isEqualTo(4);
+        assertThat(registry.get("ai.provider.deadline.exceeded").counter().count()).isEqualTo(1);
+        assertThat(governor.call(1, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void call_RequestDeadlinePassed_IsNotSent() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofSeconds(5), 1), registry);
+
+        assertThatThrownBy(() -> RequestDeadline.callWith(Instant.now().minusSeconds(1),
+                () -> governor.call(1, () -> "ok")))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    void call_ConsecutiveFailures_OpenCircuit() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofSeconds(1), 2), registry);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> governor.call(1, () -> {
+                throw new TransientAiException("500 - provider error");
+            })).isInstanceOf(TransientAiException.class);
+        }
+
+        assertThatThrownBy(() -> governor.call(1, () -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(e -> assertThat(((ServiceUnavailableException) e).getRetryAfter()).isPositive());
+    }
+
+    @Test
+    void call_ClientErrors_DoNotOpenCircuitOrShrinkLimit() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofSeconds(1), 2), registry);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> governor.call(1, () -> {
+                throw new NonTransientAiException("400 - context length exceeded");
+            })).isInstanceOf(NonTransientAiException.class);
+        }
+
+        assertThat(registry.get("ai.provider.limit").gauge().value()).isEqualTo(4);
+        assertThat(governor.call(1, () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void call_TooManyRequests_CountsAsProviderFailure() {
+        governor = new ProviderGovernor("test", settings(4, 10, Duration.ofSeconds(1), 2), registry);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> governor.call(1, () -> {
+                throw new NonTransientAiException("429 - rate limit reached");
+            })).isInstanceOf(NonTransientAiException.class);
+        }
+
+        assertThatThrownBy(() -> governor.call(1, () -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void call_LimitAndQueueFull_RejectsImmediately() throws Exception {
+        governor = new ProviderGovernor("test", settings(1, 0, Duration.ofSeconds(1), 5), registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> governor.call(1, () -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        holder.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> governor.call(1, () -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(registry.get("ai.provider.rejections").tag("reason", "queue_full").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        holder.join(5000);
+        assertThat(governor.call(1, () -> "ok")).isEqualTo("ok");
+    }
+
+    private ProviderProperties.Settings settings(int limit, int maxQueue, Duration timeout, int failureThreshold) {
+        return new ProviderProperties.Settings(limit, 1, 32, 0.5, maxQueue, Duration.ofMillis(100), timeout,
+                Duration.ofSeconds(10), 0, 0, failureThreshold, Duration.ofSeconds(30));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.DocumentEmbeddingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CentroidBackfillWorkerTest {
+
+    @Mock
+    private EmbeddingVersionService versionService;
+
+    @Mock
+    private DocumentEmbeddingRepository documentEmbeddingRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CentroidBackfillWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+    }
+
+    @Test
+    void run_DocumentsWithoutCentroid_RefreshesEachOneUntilNoneAreLeft() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(versionService.writeVersions()).thenReturn(List.of(
+                new EmbeddingVersionService.EmbeddingSpec("v1", "text-embedding-3-small", 1536)));
+        when(documentEmbeddingRepository.findDocumentsWithoutCentroid("v1", 2))
+                .thenReturn(List.of(first, second), List.of(third));
+        runTransactionCallbacks();
+
+        worker.run();
+
+        verify(documentEmbeddingRepository).refreshCentroid(first, "v1");
+        verify(documentEmbeddingRepository).refreshCentroid(second, "v1");
+        verify(documentEmbeddingRepository).refreshCentroid(third, "v1");
+        verify(documentEmbeddingRepository, times(2)).findDocumentsWithoutCentroid("v1", 2);
+    }
+
+    @Test
+    void backfill_NothingMissing_DoesNothing() {
+        when(documentEmbeddingRepository.findDocumentsWithoutCentroid("v1", 2)).thenReturn(List.of());
+
+        assertThat(worker.backfill("v1")).isZero();
+        verify(documentEmbeddingRepository, never()).refreshCentroid(any(), anyString());
+    }
+
+    @Test
+    void run_DuringMigration_BackfillsBothVersions() {
+        when(versionService.writeVersions()).thenReturn(List.of(
+                new EmbeddingVersionService.EmbeddingSpec("v1", "text-embedding-3-small", 1536),
+                new EmbeddingVersionService.EmbeddingSpec("v2", "text-embedding-3-large", 3072)));
+        when(documentEmbeddingRepository.findDocumentsWithoutCentroid(anyString(), eq(2))).thenReturn(List.of());
+
+        worker.run();
+
+        verify(documentEmbeddingRepository).findDocumentsWithoutCentroid("v1", 2);
+        verify(documentEmbeddingRepository).findDocumentsWithoutCentroid("v2", 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,259 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.dto.ChatMessageResponse;
+import com.docassist.ai.dto.ChatRequest;
+import com.docassist.ai.dto.ChatSessionResponse;
+import com.docassist.ai.dto.PageCursor;
+import com.docassist.ai.dto.SearchRequest;
+import com.docassist.ai.entity.ChatMessage;
+import com.docassist.ai.entity.ChatSession;
+import com.docassist.ai.entity.MessageRole;
+import com.docassist.ai.entity.SourceChunk;
+import com.docassist.ai.repository.ChatMessageRepository;
+import com.docassist.ai.repository.ChatSessionRepository;
+import com.docassist.common.dto.PagedResponse;
+import com.docassist.common.exception.BadRequestException;
+import com.docassist.common.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private ChatSessionRepository sessionRepository;
+
+    @Mock
+    private ChatMessageRepository messageRepository;
+
+    @Mock
+    private RagService ragService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ChatService chatService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID sessionId = UUID.randomUUID();
+
+    @Test
+    void getUserSessions_FirstPage_ReturnsCursorToTheNextPage() {
+        List<ChatSessionResponse> rows = List.of(session(0), session(1), session(2));
+        when(sessionRepository.findLatest(userId, Limit.of(3))).thenReturn(rows);
+        when(sessionRepository.countByUserId(userId)).thenReturn(5L);
+
+        PagedResponse<ChatSessionResponse> page = chatService.getUserSessions(userId, null, 2);
+
+        assertThat(page.getContent()).containsExactly(rows.get(0), rows.get(1));
+        assertThat(page.isLast()).isFalse();
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()));
+    }
+
+    @Test
+    void getUserSessions_NextPage_ContinuesAfterTheCursor() {
+        PageCursor cursor = new PageCursor(NOW.minusMinutes(1), UUID.randomUUID());
+        List<ChatSessionResponse> rows = List.of(session(2), session(3), session(4));
+        when(sessionRepository.findOlderThan(userId, cursor.createdAt(), cursor.id(), Limit.of(3))).thenReturn(rows);
+        when(sessionRepository.countByUserId(userId)).thenReturn(5L);
+
+        PagedResponse<ChatSessionResponse> page = chatService.getUserSessions(userId, cursor.encode(), 2);
+
+        assertThat(page.getContent()).containsExactly(rows.get(0), rows.get(1));
+        assertThat(page.isLast()).isFalse();
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()));
+        verify(sessionRepository, never()).findLatest(any(), any());
+    }
+
+    @Test
+    void getUserSessions_LastPage_HasNoNextCursor() {
+        PageCursor cursor = new PageCursor(NOW.minusMinutes(3), UUID.randomUUID());
+        List<ChatSessionResponse> rows = List.of(session(4));
+        when(sessionRepository.findOlderThan(userId, cursor.createdAt(), cursor.id(), Limit.of(3))).thenReturn(rows);
+        when(sessionRepository.countByUserId(userId)).thenReturn(5L);
+
+        PagedResponse<ChatSessionResponse> page = chatService.getUserSessions(userId, cursor.encode(), 2);
+
+        assertThat(page.getContent()).containsExactly(rows.get(0));
+        assertThat(page.isLast()).isTrue();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getUserSessions_MalformedCursor_IsBadRequest() {
+        assertThatThrownBy(() -> chatService.getUserSessions(userId, "not-a-cursor", 2))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void getSessionMessages_FirstPage_ReturnsNewestMessagesOldestFirst() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+        List<ChatMessageResponse> rows = List.of(message(4), message(3), message(2));
+        when(messageRepository.findLatest(sessionId, Limit.of(3))).thenReturn(rows);
+
+        PagedResponse<ChatMessageResponse> page = chatService.getSessionMessages(sessionId, userId, null, 2, false);
+
+        assertThat(page.getContent()).containsExactly(rows.get(1), rows.get(0));
+        assertThat(page.isLast()).isFalse();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()));
+        verifyNoInteractions(ragService);
+    }
+
+    @Test
+    void getSessionMessages_NextPage_ContinuesBeforeTheCursor() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+        PageCursor cursor = new PageCursor(NOW.minusMinutes(3), UUID.randomUUID());
+        List<ChatMessageResponse> rows = List.of(message(2), message(1), message(0));
+        when(messageRepository.findOlderThan(sessionId, cursor.createdAt(), cursor.id(), Limit.of(3))).thenReturn(rows);
+
+        PagedResponse<ChatMessageResponse> page = chatService.getSessionMessages(
+                sessionId, userId, cursor.encode(), 2, false);
+
+        assertThat(page.getContent()).containsExactly(rows.get(1), rows.get(0));
+        assertThat(page.isLast()).isFalse();
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()));
+    }
+
+    @Test
+    void getSessionMessages_LastPage_HasNoNextCursor() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+        PageCursor cursor = new PageCursor(NOW.minusMinutes(1), UUID.randomUUID());
+        List<ChatMessageResponse> rows = List.of(message(0));
+        when(messageRepository.findOlderThan(sessionId, cursor.createdAt(), cursor.id(), Limit.of(3))).thenReturn(rows);
+
+        PagedResponse<ChatMessageResponse> page = chatService.getSessionMessages(
+                sessionId, userId, cursor.encode(), 2, false);
+
+        assertThat(page.getContent()).containsExactly(rows.get(0));
+        assertThat(page.isLast()).isTrue();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getSessionMessages_MalformedCursor_IsBadRequest() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+
+        assertThatThrownBy(() -> chatService.getSessionMessages(sessionId, userId, "not-a-cursor", 2, false))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void getSessionMessages_OtherUsersSession_IsNotFound() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> chatService.getSessionMessages(sessionId, userId, null, 2, false))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void getSessionMessagesETag_WithSnippets_ChangesWithTheLibraryVersion() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+        when(ragService.snippetsVersion(userId)).thenReturn(
+                new SemanticAnswerCache.Version(2, NOW),
+                new SemanticAnswerCache.Version(2, NOW.plusMinutes(1)));
+
+        String before = chatService.getSessionMessagesETag(sessionId, userId, null, 2, true);
+        String after = chatService.getSessionMessagesETag(sessionId, userId, null, 2, true);
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void getSessionMessagesETag_WithoutSnippets_IgnoresTheLibraryVersion() {
+        when(sessionRepository.findMessageCount(sessionId, userId)).thenReturn(Optional.of(5));
+
+        String before = chatService.getSessionMessagesETag(sessionId, userId, null, 2, false);
+        String after = chatService.getSessionMessagesETag(sessionId, userId, null, 2, false);
+
+        assertThat(after).isEqualTo(before);
+        verifyNoInteractions(ragService);
+    }
+
+    @Test
+    void search_ReturnsSourcesWithoutTouchingSessions() {
+        UUID documentId = UUID.randomUUID();
+        List<SourceChunk> sources = List.of(SourceChunk.builder().chunkId(UUID.randomUUID()).build());
+        when(ragService.findSources("What is DocAssist?", userId, documentId)).thenReturn(sources);
+
+        List<SourceChunk> result = chatService.search(new SearchRequest("What is DocAssist?", documentId), userId);
+
+        assertThat(result).isEqualTo(sources);
+        verifyNoInteractions(sessionRepository, messageRepository);
+    }
+
+    @Test
+    void chat_CountsTheQuestionAndTheAnswer() {
+        givenExistingSession();
+        when(ragService.answerQuestion("What is DocAssist?", userId, null))
+                .thenReturn(new RagService.RagResult("A document assistant.", List.of(), 10));
+
+        chatService.chat(new ChatRequest("What is DocAssist?", null, sessionId), userId);
+
+        verify(messageRepository, times(2)).save(any(ChatMessage.class));
+        verify(sessionRepository, times(2)).incrementMessageCount(sessionId);
+    }
+
+    @Test
+    void streamChat_CountsTheQuestionAndTheAnswer() {
+        givenExistingSession();
+        when(messageRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ragService.streamAnswer("What is DocAssist?", userId, null))
+                .thenReturn(new RagService.RagStream(List.of(), Flux.just("A document ", "assistant."), 10));
+
+        List<String> events = chatService.streamChat(new ChatRequest("What is DocAssist?", null, sessionId), userId)
+                .map(event -> event.event())
+                .collectList()
+                .block();
+
+        assertThat(events).containsExactly("sources", "token", "token", "done");
+        verify(messageRepository).save(argThat(message -> message.getRole() == MessageRole.ASSISTANT
+                && message.getContent().equals("A document assistant.")));
+        verify(sessionRepository, times(2)).incrementMessageCount(sessionId);
+    }
+
+    private void givenExistingSession() {
+        ChatSession session = ChatSession.builder().id(sessionId).userId(userId).title("What is DocAssist?").build();
+        when(sessionRepository.findByIdAndUserId(sessionId, userId)).thenReturn(Optional.of(session));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    private ChatSessionResponse session(int age) {
+        return new ChatSessionResponse(UUID.randomUUID(), null, "Session " + age, 2, NOW.minusMinutes(age));
+    }
+
+    private ChatMessageResponse message(int position) {
+        return new ChatMessageResponse(UUID.randomUUID(), position % 2 == 0 ? MessageRole.USER : MessageRole.ASSISTANT,
+                "Message " + position, null, NOW.plusMinutes(position));
+    }
+}
@@ -0,0 +1,101 @@
+package com.docassist.ai.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextPackerTest {
+
+    private ContextPacker packer;
+    private UUID documentId;
+
+    @BeforeEach
+    void setUp() {
+        packer = new ContextPacker(3000, 0.9);
+        documentId = UUID.randomUUID();
+    }
+
+    @Test
+    void pack_AdjacentChunks_MergedIntoUnionSpan() {
+        EmbeddingService.RetrievedChunk first = chunk(documentId, 0, words(0, 100));
+        EmbeddingService.RetrievedChunk second = chunk(documentId, 1, words(90, 190));
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(second, first));
+
+        assertThat(packed.text()).isEqualTo(words(0, 190));
+        assertThat(packed.chunks()).containsExactly(second, first);
+    }
+
+    @Test
+    void pack_OverlappingChunksWithoutIndex_MergedByText() {
+        EmbeddingService.RetrievedChunk first = chunk(documentId, null, words(0, 100));
+        EmbeddingService.RetrievedChunk second = chunk(documentId, null, words(80, 180));
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(first, second));
+
+        assertThat(packed.text()).isEqualTo(words(0, 180));
+    }
+
+    @Test
+    void pack_MergedChunks_KeepOriginalLayout() {
+        String table = "| Plan | Price |\n|------|-------|\n| Basic | 10 |\n| Pro | 25 |";
+        String overlap = words(0, 10);
+        EmbeddingService.RetrievedChunk first = chunk(documentId, 0, "Pricing:\n\n" + table + "\n\n" + overlap);
+        EmbeddingService.RetrievedChunk second = chunk(documentId, 1, overlap + "\n- item one\n- item two");
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(first, second));
+
+        assertThat(packed.text())
+                .isEqualTo("Pricing:\n\n" + table + "\n\n" + overlap + "\n- item one\n- item two");
+    }
+
+    @Test
+    void pack_TruncatedPassage_KeepsOriginalLayout() {
+        packer = new ContextPacker(4, 0.9);
+        EmbeddingService.RetrievedChunk chunk = chunk(documentId, 0, "Steps:\n1. open\n2. close\n3. save");
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(chunk));
+
+        assertThat(packed.text()).isEqualTo("Steps:\n1. open");
+    }
+
+    @Test
+    void pack_NearDuplicateChunk_Dropped() {
+        EmbeddingService.RetrievedChunk original = chunk(documentId, 0, words(0, 100));
+        EmbeddingService.RetrievedChunk copy = chunk(UUID.randomUUID(), 7, words(0, 100));
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(original, copy));
+
+        assertThat(packed.chunks()).containsExactly(original);
+        assertThat(packed.text()).doesNotContain(ContextPacker.SEPARATOR);
+    }
+
+    @Test
+    void pack_OverBudget_FillsInRankOrder() {
+        packer = new ContextPacker(150, 0.9);
+        EmbeddingService.RetrievedChunk best = chunk(documentId, 0, words(0, 90));
+        EmbeddingService.RetrievedChunk tooLarge = chunk(UUID.randomUUID(), 0, words(1000, 1090));
+        EmbeddingService.RetrievedChunk small = chunk(UUID.randomUUID(), 0, words(2000, 2010));
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(best, tooLarge, small));
+
+        assertThat(packed.chunks()).containsExactly(best, small);
+        assertThat(packed.tokenCount()).isLessThanOrEqualTo(150);
+    }
+
+    private EmbeddingService.RetrievedChunk chunk(UUID documentId, Integer chunkIndex, String content) {
+        return new EmbeddingService.RetrievedChunk(UUID.randomUUID(), documentId, chunkIndex, content, 0.8);
+    }
+
+    private String words(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> "word" + i)
+                .collect(Collectors.joining(" "));
+    }
+}
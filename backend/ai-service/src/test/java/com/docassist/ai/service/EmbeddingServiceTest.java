@@ -0,0 +1,46 @@
+package com.docassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingServiceTest {
+
+    @Test
+    void mergeWindows_OverlappingOrTouchingWindows_MergeWithBestScore() {
+        UUID documentId = UUID.randomUUID();
+        List<EmbeddingService.RetrievedChunk> hits = List.of(
+                hit(documentId, 5, 0.9),
+                hit(documentId, 7, 0.7),
+                hit(documentId, 20, 0.6),
+                hit(documentId, 0, 0.5));
+
+        List<EmbeddingService.ChunkWindow> windows = EmbeddingService.mergeWindows(hits, 1);
+
+        assertThat(windows).containsExactly(
+                new EmbeddingService.ChunkWindow(documentId, 0, 1, 0.5),
+                new EmbeddingService.ChunkWindow(documentId, 4, 8, 0.9),
+                new EmbeddingService.ChunkWindow(documentId, 19, 21, 0.6));
+    }
+
+    @Test
+    void mergeWindows_DifferentDocumentsAndMissingIndexes_StaySeparate() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<EmbeddingService.RetrievedChunk> hits = List.of(
+                hit(first, 3, 0.8),
+                hit(second, 3, 0.7),
+                hit(second, null, 0.6));
+
+        assertThat(EmbeddingService.mergeWindows(hits, 2)).containsExactly(
+                new EmbeddingService.ChunkWindow(first, 1, 5, 0.8),
+                new EmbeddingService.ChunkWindow(second, 1, 5, 0.7));
+    }
+
+    private EmbeddingService.RetrievedChunk hit(UUID documentId, Integer chunkIndex, double score) {
+        return new EmbeddingService.RetrievedChunk(UUID.randomUUID(), documentId, chunkIndex, "content", score);
+    }
+}
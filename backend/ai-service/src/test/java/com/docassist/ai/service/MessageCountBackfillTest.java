@@ -0,0 +1,53 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.ChatSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageCountBackfillTest {
+
+    @Mock
+    private ChatSessionRepository sessionRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private MessageCountBackfill backfill;
+
+    @Test
+    void run_UpdatesSessionsInOneTransaction() {
+        runTransactionCallbacks();
+        when(sessionRepository.backfillMessageCounts()).thenReturn(3);
+
+        backfill.run();
+
+        verify(sessionRepository).backfillMessageCounts();
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void run_DatabaseError_DoesNotFailStartup() {
+        runTransactionCallbacks();
+        when(sessionRepository.backfillMessageCounts()).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatCode(backfill::run).doesNotThrowAnyException();
+    }
+
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+}
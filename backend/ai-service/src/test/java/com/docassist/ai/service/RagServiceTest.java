@@ -0,0 +1,244 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.entity.SourceChunk;
+import com.docassist.ai.provider.ProviderGovernor;
+import com.docassist.ai.provider.ProviderGovernors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RagServiceTest {
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @Mock
+    private ChatClient.Builder chatClientBuilder;
+
+    @Mock
+    private SemanticAnswerCache answerCache;
+
+    @Mock
+    private ContextPacker contextPacker;
+
+    @Mock
+    private ProviderGovernors providerGovernors;
+
+    @InjectMocks
+    private RagService ragService;
+
+    @Test
+    void answerQuestion_IdenticalConcurrentQuestions_ShareOneComputation() throws Exception {
+        UUID userId = UUID.randomUUID();
+        CountDownLatch embedding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(embeddingService.embed(anyString())).thenAnswer(invocation -> {
+            embedding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new float[]{1f, 0f};
+        });
+
+        AtomicReference<RagService.RagResult> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderResult.set(ragService.answerQuestion("What is DocAssist?", userId, null)));
+        leader.start();
+        assertThat(embedding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<RagService.RagResult> followerResult = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerResult.set(ragService.answerQuestion("  what is  DocAssist? ", userId, null)));
+        follower.start();
+        while (follower.getState() != Thread.State.WAITING && follower.isAlive()) {
+            Thread.sleep(5);
+        }
+
+        release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+
+        verify(embeddingService, times(1)).embed(anyString());
+        assertThat(followerResult.get().answer()).isEqualTo(leaderResult.get().answer());
+        assertThat(followerResult.get().promptTokens()).isZero();
+    }
+
+    @Test
+    void streamAnswer_IdenticalConcurrentStreams_ShareOneGeneration() throws Exception {
+        UUID userId = UUID.randomUUID();
+        EmbeddingService.RetrievedChunk chunk = new EmbeddingService.RetrievedChunk(
+                UUID.randomUUID(), UUID.randomUUID(), 0, "DocAssist answers questions.", 0.9);
+        CountDownLatch embedding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(embeddingService.embed(anyString())).thenAnswer(invocation -> {
+            embedding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new float[]{1f, 0f};
+        });
+        when(embeddingService.searchSimilar(any(), eq(userId), isNull(), anyDouble(), anyInt()))
+                .thenReturn(List.of(chunk));
+        when(embeddingService.expandNeighbors(anyList(), eq(userId), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(contextPacker.pack(anyList())).thenReturn(new ContextPacker.PackedContext(chunk.content(), List.of(chunk), 10));
+        ProviderGovernor chatGovernor = mock(ProviderGovernor.class);
+        Sinks.Many<String> generation = Sinks.many().multicast().onBackpressureBuffer();
+        when(providerGovernors.chat()).thenReturn(chatGovernor);
+        when(chatGovernor.<String>stream(anyInt(), any())).thenReturn(generation.asFlux());
+
+        AtomicReference<RagService.RagStream> leaderStream = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderStream.set(ragService.streamAnswer("What is DocAssist?", userId, null)));
+        leader.start();
+        assertThat(embedding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<RagService.RagStream> followerStream = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerStream.set(ragService.streamAnswer("  what is  DocAssist? ", userId, null)));
+        follower.start();
+        while (follower.getState() != Thread.State.WAITING && follower.isAlive()) {
+            Thread.sleep(5);
+        }
+
+        release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+
+        CompletableFuture<String> leaderAnswer = leaderStream.get().tokens().collect(Collectors.joining()).toFuture();
+        CompletableFuture<String> followerAnswer = followerStream.get().tokens().collect(Collectors.joining()).toFuture();
+        generation.tryEmitNext("Doc");
+        generation.tryEmitNext("Assist");
+        generation.tryEmitComplete();
+
+        verify(embeddingService, times(1)).embed(anyString());
+        verify(chatGovernor, times(1)).stream(anyInt(), any());
+        assertThat(leaderAnswer.get(5, TimeUnit.SECONDS)).isEqualTo("DocAssist");
+        assertThat(followerAnswer.get(5, TimeUnit.SECONDS)).isEqualTo("DocAssist");
+        assertThat(followerStream.get().sources()).hasSize(1);
+        assertThat(followerStream.get().promptTokens()).isZero();
+    }
+
+    @Test
+    void streamAnswer_LateJoiner_ReplaysFinishedAnswerWithoutRestarting() throws Exception {
+        UUID userId = UUID.randomUUID();
+        EmbeddingService.RetrievedChunk chunk = new EmbeddingService.RetrievedChunk(
+                UUID.randomUUID(), UUID.randomUUID(), 0, "DocAssist answers questions.", 0.9);
+        CountDownLatch embedding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(embeddingService.embed(anyString())).thenAnswer(invocation -> {
+            embedding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new float[]{1f, 0f};
+        });
+        when(embeddingService.searchSimilar(any(), eq(userId), isNull(), anyDouble(), anyInt()))
+                .thenReturn(List.of(chunk));
+        when(embeddingService.expandNeighbors(anyList(), eq(userId), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(contextPacker.pack(anyList())).thenReturn(new ContextPacker.PackedContext(chunk.content(), List.of(chunk), 10));
+        ProviderGovernor chatGovernor = mock(ProviderGovernor.class);
+        Sinks.Many<String> generation = Sinks.many().multicast().onBackpressureBuffer();
+        when(providerGovernors.chat()).thenReturn(chatGovernor);
+        when(chatGovernor.<String>stream(anyInt(), any())).thenReturn(generation.asFlux());
+
+        AtomicReference<RagService.RagStream> leaderStream = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderStream.set(ragService.streamAnswer("What is DocAssist?", userId, null)));
+        leader.start();
+        assertThat(embedding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<RagService.RagStream> followerStream = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerStream.set(ragService.streamAnswer("What is DocAssist?", userId, null)));
+        follower.start();
+        while (follower.getState() != Thread.State.WAITING && follower.isAlive()) {
+            Thread.sleep(5);
+        }
+
+        release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+
+        // The follower joined while generation was in flight but only subscribes after it ended.
+        CompletableFuture<String> leaderAnswer = leaderStream.get().tokens().collect(Collectors.joining()).toFuture();
+        generation.tryEmitNext("Doc");
+        generation.tryEmitNext("Assist");
+        generation.tryEmitComplete();
+        assertThat(leaderAnswer.get(5, TimeUnit.SECONDS)).isEqualTo("DocAssist");
+
+        String followerAnswer = followerStream.get().tokens().collect(Collectors.joining()).block(Duration.ofSeconds(5));
+
+        assertThat(followerAnswer).isEqualTo("DocAssist");
+        verify(chatGovernor, times(1)).stream(anyInt(), any());
+    }
+
+    @Test
+    void answerQuestion_InaccessibleDocument_DoesNotJoinOrCompute() {
+        UUID userId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        when(embeddingService.canAccessDocument(documentId, userId)).thenReturn(false);
+
+        RagService.RagResult result = ragService.answerQuestion("What is DocAssist?", userId, documentId);
+
+        assertThat(result.sources()).isEmpty();
+        verify(embeddingService, never()).embed(anyString());
+    }
+
+    @Test
+    void answerBatch_EmbedsAllQuestionsInOneCallAndAnswersEach() {
+        UUID userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(ragService, "batchSearchConcurrency", 2);
+        ReflectionTestUtils.setField(ragService, "batchChatConcurrency", 2);
+        List<String> questions = List.of("First?", "Second?", "Third?");
+        when(embeddingService.embedAll(questions))
+                .thenReturn(List.of(new float[]{1f, 0f}, new float[]{0f, 1f}, new float[]{1f, 1f}));
+
+        List<RagService.BatchItem> items = ragService.answerBatch(questions, userId, null).collectList().block();
+
+        assertThat(items).extracting(RagService.BatchItem::index).containsExactlyInAnyOrder(0, 1, 2);
+        assertThat(items).allSatisfy(item -> assertThat(item.result()).isNotNull());
+        verify(embeddingService, times(1)).embedAll(questions);
+        verify(embeddingService, never()).embed(anyString());
+    }
+
+    @Test
+    void hydrateSnippets_FillsKnownChunksAndTruncatesLongOnes() {
+        UUID userId = UUID.randomUUID();
+        ReflectionTestUtils.setField(ragService, "snippetChars", 5);
+        SourceChunk shortChunk = SourceChunk.builder().chunkId(UUID.randomUUID()).build();
+        SourceChunk longChunk = SourceChunk.builder().chunkId(UUID.randomUUID()).build();
+        SourceChunk deletedChunk = SourceChunk.builder().chunkId(UUID.randomUUID()).content("stale").build();
+        when(embeddingService.chunkPrefixes(anyCollection(), eq(userId), eq(5)))
+                .thenReturn(Map.of(shortChunk.getChunkId(), "short", longChunk.getChunkId(), "longer"));
+
+        ragService.hydrateSnippets(List.of(shortChunk, longChunk, deletedChunk), userId);
+
+        assertThat(shortChunk.getContent()).isEqualTo("short");
+        assertThat(longChunk.getContent()).isEqualTo("longe...");
+        assertThat(deletedChunk.getContent()).isNull();
+        verify(embeddingService, times(1)).chunkPrefixes(anyCollection(), eq(userId), eq(5));
+    }
+
+    @Test
+    void normalize_IgnoresCaseAndWhitespace() {
+        assertThat(RagService.normalize("  What   is\tDocAssist? "))
+                .isEqualTo(RagService.normalize("what is docassist?"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.repository.ChunkEmbeddingRepository;
+import com.docassist.ai.repository.DocumentEmbeddingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReembeddingWorkerTest {
+
+    @Mock
+    private EmbeddingVersionService versionService;
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @Mock
+    private ChunkEmbeddingRepository embeddingRepository;
+
+    @Mock
+    private DocumentEmbeddingRepository documentEmbeddingRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ReembeddingWorker worker;
+
+    private final EmbeddingVersionService.EmbeddingSpec active =
+            new EmbeddingVersionService.EmbeddingSpec("v1", "text-embedding-3-small", 1536);
+    private final EmbeddingVersionService.EmbeddingSpec target =
+            new EmbeddingVersionService.EmbeddingSpec("v2", "text-embedding-3-large", 3072);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "batchSize", 10);
+        ReflectionTestUtils.setField(worker, "batchesPerRun", 2);
+        ReflectionTestUtils.setField(worker, "lease", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void migrate_PendingChunks_ReembedsAtMostBatchesPerRun() {
+        ChunkEmbeddingRepository.PendingChunk chunk = mock(ChunkEmbeddingRepository.PendingChunk.class);
+        when(versionService.acquireLease(eq("v2"), anyString(), any())).thenReturn(true);
+        when(versionService.active()).thenReturn(active);
+        when(embeddingRepository.findChunksMissingVersion("v1", "v2", 10)).thenReturn(List.of(chunk));
+
+        worker.migrate(target);
+
+        verify(embeddingService, times(2)).storeVersion(target, List.of(chunk));
+        verify(versionService, never()).activate(anyString());
+    }
+
+    @Test
+    void migrate_NothingMissing_ActivatesTargetVersion() {
+        when(versionService.acquireLease(eq("v2"), anyString(), any())).thenReturn(true);
+        when(versionService.active()).thenReturn(active);
+        when(embeddingRepository.findChunksMissingVersion("v1", "v2", 10)).thenReturn(List.of());
+
+        worker.migrate(target);
+
+        verify(versionService).activate("v2");
+        verify(embeddingService, never()).storeVersion(any(), any());
+    }
+
+    @Test
+    void migrate_LeaseHeldElsewhere_DoesNothing() {
+        when(versionService.acquireLease(eq("v2"), anyString(), any())).thenReturn(false);
+
+        worker.migrate(target);
+
+        verifyNoInteractions(embeddingRepository, embeddingService);
+    }
+}
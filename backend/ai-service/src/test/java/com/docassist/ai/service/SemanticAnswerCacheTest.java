@@ -0,0 +1,100 @@
+package com.docassist.ai.service;
+
+import com.docassist.ai.entity.SourceChunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticAnswerCacheTest {
+
+    private SemanticAnswerCache cache;
+    private UUID documentId;
+    private SemanticAnswerCache.Scope scope;
+    private SemanticAnswerCache.Version version;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SemanticAnswerCache(true, 0.95, Duration.ofHours(1), 2);
+        documentId = UUID.randomUUID();
+        scope = SemanticAnswerCache.Scope.forDocument(documentId);
+        version = new SemanticAnswerCache.Version(1, LocalDateTime.of(2026, 1, 1, 12, 0));
+    }
+
+    @Test
+    void get_SimilarQuestion_ReturnsCachedAnswer() {
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("cached", documentId));
+
+        assertThat(cache.get(scope, version, new float[]{0.99f, 0.05f, 0f}))
+                .hasValueSatisfying(r -> assertThat(r.answer()).isEqualTo("cached"));
+    }
+
+    @Test
+    void get_DissimilarQuestionOrOtherScope_Misses() {
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("cached", documentId));
+
+        assertThat(cache.get(scope, version, new float[]{0f, 1f, 0f})).isEmpty();
+        assertThat(cache.get(SemanticAnswerCache.Scope.forDocument(UUID.randomUUID()), version,
+                new float[]{1f, 0f, 0f}))
+                .isEmpty();
+    }
+
+    @Test
+    void get_ExpiredEntry_Misses() {
+        cache = new SemanticAnswerCache(true, 0.95, Duration.ZERO, 10);
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("cached", documentId));
+
+        assertThat(cache.get(scope, version, new float[]{1f, 0f, 0f})).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void put_BeyondMaxEntries_EvictsLeastRecentlyUsed() {
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("first", documentId));
+        cache.put(scope, version, new float[]{0f, 1f, 0f}, result("second", documentId));
+        cache.get(scope, version, new float[]{1f, 0f, 0f});
+        cache.put(scope, version, new float[]{0f, 0f, 1f}, result("third", documentId));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(scope, version, new float[]{1f, 0f, 0f})).isPresent();
+        assertThat(cache.get(scope, version, new float[]{0f, 1f, 0f})).isEmpty();
+    }
+
+    @Test
+    void invalidateDocument_RemovesScopedAndCitingEntries() {
+        UUID userId = UUID.randomUUID();
+        SemanticAnswerCache.Scope userScope = SemanticAnswerCache.Scope.forUser(userId);
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("scoped", documentId));
+        cache.put(userScope, version, new float[]{1f, 0f, 0f}, result("citing", documentId));
+
+        cache.invalidateDocument(documentId);
+
+        assertThat(cache.get(scope, version, new float[]{1f, 0f, 0f})).isEmpty();
+        assertThat(cache.get(userScope, version, new float[]{1f, 0f, 0f})).isEmpty();
+    }
+
+    @Test
+    void get_DocumentsChangedElsewhere_MissesAndDropsStaleEntry() {
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("cached", documentId));
+        SemanticAnswerCache.Version reembedded = new SemanticAnswerCache.Version(1, version.updatedAt().plusMinutes(5));
+        SemanticAnswerCache.Version deleted = new SemanticAnswerCache.Version(0, null);
+
+        assertThat(cache.get(scope, reembedded, new float[]{1f, 0f, 0f})).isEmpty();
+        assertThat(cache.size()).isZero();
+        cache.put(scope, version, new float[]{1f, 0f, 0f}, result("cached", documentId));
+        assertThat(cache.get(scope, deleted, new float[]{1f, 0f, 0f})).isEmpty();
+    }
+
+    private RagService.RagResult result(String answer, UUID documentId) {
+        return new RagService.RagResult(answer, List.of(SourceChunk.builder()
+                .chunkId(UUID.randomUUID())
+                .documentId(documentId)
+                .content("excerpt")
+                .build()), 100);
+    }
+}
@@ -0,0 +1,59 @@
+package com.docassist.ai.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedReplayTest {
+
+    @Test
+    void flux_SubscriberAfterCompletion_GetsRecordedSequence() {
+        AtomicInteger runs = new AtomicInteger();
+        Flux<String> tokens = new SharedReplay<>(Flux.defer(() -> {
+            runs.incrementAndGet();
+            return Flux.just("a", "b");
+        })).flux();
+
+        assertThat(tokens.collectList().block(Duration.ofSeconds(5))).containsExactly("a", "b");
+        assertThat(tokens.collectList().block(Duration.ofSeconds(5))).containsExactly("a", "b");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void flux_OneOfTwoSubscribersCancels_KeepsSource() {
+        Sinks.Many<String> source = Sinks.many().multicast().onBackpressureBuffer();
+        AtomicInteger cancels = new AtomicInteger();
+        Flux<String> tokens = new SharedReplay<>(source.asFlux().doOnCancel(cancels::incrementAndGet)).flux();
+        List<String> received = new ArrayList<>();
+
+        Disposable first = tokens.subscribe();
+        tokens.subscribe(received::add);
+        first.dispose();
+        source.tryEmitNext("a");
+
+        assertThat(cancels).hasValue(0);
+        assertThat(received).containsExactly("a");
+    }
+
+    @Test
+    void flux_AllSubscribersCancel_CancelsSource() {
+        Sinks.Many<String> source = Sinks.many().multicast().onBackpressureBuffer();
+        AtomicInteger cancels = new AtomicInteger();
+        Flux<String> tokens = new SharedReplay<>(source.asFlux().doOnCancel(cancels::incrementAndGet)).flux();
+
+        Disposable first = tokens.subscribe();
+        Disposable second = tokens.subscribe();
+        first.dispose();
+        second.dispose();
+
+        assertThat(cancels).hasValue(1);
+    }
+}
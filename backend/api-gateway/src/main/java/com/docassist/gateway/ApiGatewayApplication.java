@@ -1,9 +1,15 @@
 package com.docassist.gateway;
 
+import com.docassist.gateway.admission.AdmissionProperties;
+import com.docassist.gateway.security.RevocationProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableConfigurationProperties({AdmissionProperties.class, RevocationProperties.class})
+@EnableScheduling
 public class ApiGatewayApplication {
     public static void main(String[] args) {
         SpringApplication.run(ApiGatewayApplication.class, args);
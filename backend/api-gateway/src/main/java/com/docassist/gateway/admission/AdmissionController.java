@@ -0,0 +1,160 @@
+package com.docassist.gateway.admission;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Admits requests into a shared pool of downstream slots. Each class has its own concurrency
+// cap and a bounded FIFO queue with a maximum wait. Freed slots go to the highest-priority
+// class that has someone waiting. A request is shed straight away when its queue is full, or
+// when the pool is full and a higher-priority class is already queued, since it would only
+// wait behind that class and time out.
+public class AdmissionController {
+
+    private final int maxConcurrency;
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final List<Lane> byPriority;
+    private final Lane defaultLane;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int inFlight;
+
+    public AdmissionController(AdmissionProperties properties) {
+        this.maxConcurrency = properties.maxConcurrency();
+        if (properties.classes() != null) {
+            properties.classes().forEach((name, settings) -> lanes.put(name, new Lane(name, settings)));
+        }
+        this.defaultLane = lanes.computeIfAbsent(properties.defaultClass(), name -> new Lane(name,
+                new AdmissionProperties.ClassSettings(0, properties.maxConcurrency(), properties.maxConcurrency(),
+                        Duration.ofSeconds(1))));
+        this.byPriority = lanes.values().stream()
+                .sorted(Comparator.comparingInt((Lane lane) -> lane.settings.priority()).reversed())
+                .toList();
+    }
+
+    public Mono<Permit> acquire(String admissionClass) {
+        Lane lane = admissionClass != null ? lanes.getOrDefault(admissionClass, defaultLane) : defaultLane;
+        return Mono.<Permit>create(sink -> enqueue(lane, sink))
+                .timeout(lane.settings.maxWait(), Mono.error(() -> rejected(lane, "waited too long")))
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void enqueue(Lane lane, MonoSink<Permit> sink) {
+        Permit permit = null;
+        String rejection = null;
+        lock.lock();
+        try {
+            if (lane.waiting.isEmpty() && hasSlot(lane)) {
+                permit = admit(lane);
+            } else if (lane.waiting.size() >= lane.settings.maxQueue()) {
+                rejection = "queue full";
+            } else if (inFlight >= maxConcurrency && higherPriorityWaiting(lane)) {
+                rejection = "shed for higher priority work";
+            } else {
+                lane.waiting.add(sink);
+                sink.onCancel(() -> withdraw(lane, sink));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (permit != null) {
+            sink.success(permit);
+        } else if (rejection != null) {
+            sink.error(rejected(lane, rejection));
+        }
+    }
+
+    private void withdraw(Lane lane, MonoSink<Permit> sink) {
+        lock.lock();
+        try {
+            lane.waiting.remove(sink);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Lane lane) {
+        List<Grant> grants = new ArrayList<>();
+        lock.lock();
+        try {
+            lane.inFlight--;
+            inFlight--;
+            for (Lane candidate : byPriority) {
+                while (!candidate.waiting.isEmpty() && hasSlot(candidate)) {
+                    grants.add(new Grant(candidate.waiting.poll(), admit(candidate)));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        grants.forEach(grant -> grant.sink().success(grant.permit()));
+    }
+
+    private boolean hasSlot(Lane lane) {
+        return inFlight < maxConcurrency && lane.inFlight < lane.settings.maxConcurrency();
+    }
+
+    private boolean higherPriorityWaiting(Lane lane) {
+        return byPriority.stream()
+                .anyMatch(other -> other.settings.priority() > lane.settings.priority() && !other.waiting.isEmpty());
+    }
+
+    private Permit admit(Lane lane) {
+        lane.inFlight++;
+        inFlight++;
+        return new Permit(lane);
+    }
+
+    private static AdmissionRejectedException rejected(Lane lane, String reason) {
+        long seconds = Math.max(1, (lane.settings.maxWait().toMillis() + 999) / 1000);
+        return new AdmissionRejectedException(lane.name + ": " + reason, Duration.ofSeconds(seconds));
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit {
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                AdmissionController.this.release(lane);
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final String name;
+        private final AdmissionProperties.ClassSettings settings;
+        private final ArrayDeque<MonoSink<Permit>> waiting = new ArrayDeque<>();
+        private int inFlight;
+
+        private Lane(String name, AdmissionProperties.ClassSettings settings) {
+            this.name = name;
+            this.settings = settings;
+        }
+    }
+
+    private record Grant(MonoSink<Permit> sink, Permit permit) {}
+}
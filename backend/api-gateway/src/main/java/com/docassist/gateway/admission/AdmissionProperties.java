@@ -0,0 +1,22 @@
+package com.docassist.gateway.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Routes pick a class through their "admission-class" metadata; routes without one use defaultClass.
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionProperties(
+        @DefaultValue("200") int maxConcurrency,
+        @DefaultValue("interactive") String defaultClass,
+        Map<String, ClassSettings> classes) {
+
+    public record ClassSettings(
+            @DefaultValue("0") int priority,
+            @DefaultValue("50") int maxConcurrency,
+            @DefaultValue("50") int maxQueue,
+            @DefaultValue("1s") Duration maxWait) {
+    }
+}
@@ -1,8 +1,11 @@
 package com.docassist.gateway.config;
 
+import com.docassist.gateway.filter.JwtAuthenticationFilter;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 @Configuration
@@ -10,11 +13,23 @@ public class RateLimitConfig {
 
     @Bean
     public KeyResolver ipKeyResolver() {
+        return exchange -> Mono.just(clientIp(exchange));
+    }
+
+    // Authenticated requests are limited per user; open paths such as login fall back to the
+    // client address. The user id comes from the verified token, never from request headers.
+    @Bean
+    @Primary
+    public KeyResolver userKeyResolver() {
         return exchange -> {
-            String ip = exchange.getRequest().getRemoteAddress() != null
-                    ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-                    : "unknown";
-            return Mono.just(ip);
+            String userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+            return Mono.just(userId != null ? "user:" + userId : "ip:" + clientIp(exchange));
         };
     }
+
+    private static String clientIp(ServerWebExchange exchange) {
+        return exchange.getRequest().getRemoteAddress() != null
+                ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
+                : "unknown";
+    }
 }
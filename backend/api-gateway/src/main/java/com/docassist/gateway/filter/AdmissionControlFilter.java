@@ -0,0 +1,54 @@
+package com.docassist.gateway.filter;
+
+import com.docassist.gateway.admission.AdmissionController;
+import com.docassist.gateway.admission.AdmissionProperties;
+import com.docassist.gateway.admission.AdmissionRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Runs after authentication and rate limiting, so only requests that would otherwise be
+// forwarded compete for downstream slots. Held slots are released when the response completes,
+// fails or the client goes away.
+@Component
+@Slf4j
+public class AdmissionControlFilter implements GlobalFilter, Ordered {
+
+    public static final String ADMISSION_CLASS_METADATA = "admission-class";
+
+    private final AdmissionController admissionController;
+
+    public AdmissionControlFilter(AdmissionProperties properties) {
+        this.admissionController = new AdmissionController(properties);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Object admissionClass = route != null ? route.getMetadata().get(ADMISSION_CLASS_METADATA) : null;
+
+        return admissionController.acquire(admissionClass != null ? admissionClass.toString() : null)
+                .flatMap(permit -> chain.filter(exchange).doFinally(signal -> permit.release()))
+                .onErrorResume(AdmissionRejectedException.class, e -> {
+                    log.debug("Shed {} {}: {}", exchange.getRequest().getMethod(),
+                            exchange.getRequest().getPath(), e.getMessage());
+                    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    exchange.getResponse().getHeaders()
+                            .set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()));
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return 10;
+    }
+}
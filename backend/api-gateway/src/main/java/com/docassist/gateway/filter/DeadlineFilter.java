@@ -0,0 +1,62 @@
+package com.docassist.gateway.filter;
+
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Stamps the moment the gateway will stop waiting for a response as epoch milliseconds, so the
+// services can give up at the same time instead of finishing work nobody will receive. It runs
+// just before the request is forwarded, where the route's response timeout starts counting.
+// Deadlines sent by clients are replaced.
+@Component
+public class DeadlineFilter implements GlobalFilter, Ordered {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    private final HttpClientProperties httpClientProperties;
+
+    public DeadlineFilter(HttpClientProperties httpClientProperties) {
+        this.httpClientProperties = httpClientProperties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Duration timeout = responseTimeout(route);
+        if (timeout == null) {
+            return chain.filter(exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.remove(DEADLINE_HEADER)))
+                    .build());
+        }
+
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        return chain.filter(exchange.mutate()
+                .request(request -> request.header(DEADLINE_HEADER, String.valueOf(deadline)))
+                .build());
+    }
+
+    // Same resolution as the routing filter: a non-negative route metadata value in milliseconds,
+    // a negative one to disable the timeout, otherwise the global httpclient setting.
+    private Duration responseTimeout(Route route) {
+        Object routeTimeout = route != null ? route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR) : null;
+        if (routeTimeout instanceof Number millis) {
+            return millis.longValue() >= 0 ? Duration.ofMillis(millis.longValue()) : null;
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+}
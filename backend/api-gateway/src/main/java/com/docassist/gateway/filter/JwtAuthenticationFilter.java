@@ -1,9 +1,8 @@
 package com.docassist.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.docassist.gateway.security.PathPrefixTrie;
+import com.docassist.gateway.security.TokenRevocations;
+import com.docassist.gateway.security.TokenVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -15,20 +14,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final SecretKey key;
-    private final List<String> openPaths;
+    public static final String USER_ID_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".userId";
+
+    private final TokenVerifier tokenVerifier;
+    private final TokenRevocations tokenRevocations;
+    private final PathPrefixTrie openPaths;
 
     public JwtAuthenticationFilter(
-            @Value("${app.jwt.secret}") String secret,
+            TokenVerifier tokenVerifier,
+            TokenRevocations tokenRevocations,
             @Value("${app.security.open-paths}") List<String> openPaths) {
-        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
-        this.openPaths = openPaths;
+        this.tokenVerifier = tokenVerifier;
+        this.tokenRevocations = tokenRevocations;
+        this.openPaths = new PathPrefixTrie(openPaths);
     }
 
     @Override
@@ -36,45 +40,42 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
-        if (isOpenPath(path)) {
+        if (openPaths.matches(path)) {
             return chain.filter(exchange);
         }
 
         String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-            return exchange.getResponse().setComplete();
+            return reject(exchange, HttpStatus.UNAUTHORIZED);
         }
 
-        String token = authHeader.substring(7);
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            String type = claims.get("type", String.class);
-            if (!"access".equals(type)) {
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
-            }
+        Optional<TokenVerifier.VerifiedToken> verified = tokenVerifier.verify(authHeader.substring(7));
+        if (verified.isEmpty()) {
+            return reject(exchange, HttpStatus.UNAUTHORIZED);
+        }
 
-            ServerHttpRequest mutatedRequest = request.mutate()
-                    .header("X-User-Id", claims.getSubject())
-                    .header("X-User-Email", claims.get("email", String.class))
-                    .build();
+        TokenVerifier.VerifiedToken token = verified.get();
+        return tokenRevocations.check(token.tokenId()).flatMap(status -> switch (status) {
+            case ACTIVE -> forward(exchange, chain, token);
+            case REVOKED -> reject(exchange, HttpStatus.UNAUTHORIZED);
+            // The filter flagged the token but auth-service could not confirm either way.
+            case UNKNOWN -> reject(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+        });
+    }
 
-            return chain.filter(exchange.mutate().request(mutatedRequest).build());
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, TokenVerifier.VerifiedToken token) {
+        exchange.getAttributes().put(USER_ID_ATTRIBUTE, token.userId());
+        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                .header("X-User-Id", token.userId())
+                .header("X-User-Email", token.email())
+                .build();
 
-        } catch (Exception e) {
-            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-            return exchange.getResponse().setComplete();
-        }
+        return chain.filter(exchange.mutate().request(mutatedRequest).build());
     }
 
-    private boolean isOpenPath(String path) {
-        return openPaths.stream().anyMatch(path::startsWith);
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
     }
 
     @Override
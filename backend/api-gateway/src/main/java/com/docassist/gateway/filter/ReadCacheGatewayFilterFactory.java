@@ -0,0 +1,38 @@
+package com.docassist.gateway.filter;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheGatewayFilterFactory.RouteCacheConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Route filter (ReadCache) for the GETs whose responses may be served from the gateway's local
+// response cache. Delegates to LocalResponseCache when the cache is enabled and passes requests
+// straight through otherwise, so routes can declare it whether or not the cache is switched on.
+@Component
+public class ReadCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<RouteCacheConfiguration> {
+
+    private final ObjectProvider<LocalResponseCacheGatewayFilterFactory> localResponseCache;
+
+    public ReadCacheGatewayFilterFactory(ObjectProvider<LocalResponseCacheGatewayFilterFactory> localResponseCache) {
+        super(RouteCacheConfiguration.class);
+        this.localResponseCache = localResponseCache;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "size");
+    }
+
+    @Override
+    public GatewayFilter apply(RouteCacheConfiguration config) {
+        LocalResponseCacheGatewayFilterFactory delegate = localResponseCache.getIfAvailable();
+        if (delegate == null) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return delegate.apply(config);
+    }
+}
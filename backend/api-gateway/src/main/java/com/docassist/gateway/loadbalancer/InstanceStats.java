@@ -0,0 +1,79 @@
+package com.docassist.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live view of one instance: requests in flight, a time-decayed moving average of response
+// latency, consecutive failures and the current ejection, if any.
+class InstanceStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long decayNanos;
+
+    private double latencyNanos;
+    private long samples;
+    private long lastSampleAt;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+
+    InstanceStats(long decayNanos) {
+        this.decayNanos = decayNanos;
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    // Older samples lose weight with elapsed time rather than with sample count, so an idle
+    // instance's average does not freeze at whatever it saw last.
+    synchronized void record(long latency, boolean failed, long now) {
+        if (samples == 0) {
+            latencyNanos = latency;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, now - lastSampleAt) / decayNanos);
+            latencyNanos = latencyNanos * weight + latency * (1 - weight);
+        }
+        samples++;
+        lastSampleAt = now;
+        consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+    }
+
+    // Outcome of a call whose duration says nothing about the instance, such as a stream.
+    synchronized void recordOutcome(boolean failed) {
+        consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double latencyNanos() {
+        return latencyNanos;
+    }
+
+    synchronized long samples() {
+        return samples;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized boolean isEjected(long now) {
+        return ejections > 0 && now - ejectedUntil < 0;
+    }
+
+    // Each ejection lasts longer than the previous one. Samples are reset so the instance is
+    // judged afresh once it comes back.
+    synchronized void eject(long baseNanos, long maxNanos, long now) {
+        ejections++;
+        ejectedUntil = now + Math.min(maxNanos, baseNanos * ejections);
+        samples = 0;
+        latencyNanos = 0;
+        consecutiveFailures = 0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.docassist.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shared by every load-balanced route. An instance is ejected after a run of failed calls, or
+// when its average latency is latencyFactor times that of the fastest healthy peer. At most
+// maxEjectionPercent of a service's instances are ejected at once.
+@Component
+@Slf4j
+public class InstanceStatsRegistry {
+
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+
+    private final long decayNanos;
+    private final int consecutiveFailures;
+    private final double latencyFactor;
+    private final long minSamples;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+
+    public InstanceStatsRegistry(
+            @Value("${app.loadbalancer.latency-decay:10s}") Duration latencyDecay,
+            @Value("${app.loadbalancer.outlier.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${app.loadbalancer.outlier.latency-factor:3.0}") double latencyFactor,
+            @Value("${app.loadbalancer.outlier.min-samples:20}") long minSamples,
+            @Value("${app.loadbalancer.outlier.base-ejection:30s}") Duration baseEjection,
+            @Value("${app.loadbalancer.outlier.max-ejection:5m}") Duration maxEjection,
+            @Value("${app.loadbalancer.outlier.max-ejection-percent:50}") int maxEjectionPercent) {
+        this.decayNanos = latencyDecay.toNanos();
+        this.consecutiveFailures = consecutiveFailures;
+        this.latencyFactor = latencyFactor;
+        this.minSamples = minSamples;
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjectionNanos = maxEjection.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    InstanceStats stats(ServiceInstance instance) {
+        return services.computeIfAbsent(instance.getServiceId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(instance), key -> new InstanceStats(decayNanos));
+    }
+
+    boolean isEjected(ServiceInstance instance, long now) {
+        return stats(instance).isEjected(now);
+    }
+
+    void record(ServiceInstance instance, long latency, boolean failed, long now) {
+        InstanceStats stats = stats(instance);
+        stats.record(latency, failed, now);
+
+        Map<String, InstanceStats> peers = services.get(instance.getServiceId());
+        if (stats.consecutiveFailures() >= consecutiveFailures) {
+            eject(instance, stats, peers, now, stats.consecutiveFailures() + " consecutive failures");
+        } else if (stats.samples() >= minSamples) {
+            double fastest = fastestPeerLatency(stats, peers, now);
+            if (fastest > 0 && stats.latencyNanos() > fastest * latencyFactor) {
+                eject(instance, stats, peers, now, String.format("average latency %.0fms against %.0fms",
+                        stats.latencyNanos() / 1e6, fastest / 1e6));
+            }
+        }
+    }
+
+    void recordOutcome(ServiceInstance instance, boolean failed, long now) {
+        InstanceStats stats = stats(instance);
+        stats.recordOutcome(failed);
+        if (stats.consecutiveFailures() >= consecutiveFailures) {
+            eject(instance, stats, services.get(instance.getServiceId()), now,
+                    stats.consecutiveFailures() + " consecutive failures");
+        }
+    }
+
+    private double fastestPeerLatency(InstanceStats self, Map<String, InstanceStats> peers, long now) {
+        double fastest = 0;
+        for (InstanceStats peer : peers.values()) {
+            if (peer != self && !peer.isEjected(now) && peer.samples() >= minSamples
+                    && (fastest == 0 || peer.latencyNanos() < fastest)) {
+                fastest = peer.latencyNanos();
+            }
+        }
+        return fastest;
+    }
+
+    private synchronized void eject(ServiceInstance instance, InstanceStats stats,
+                                    Map<String, InstanceStats> peers, long now, String reason) {
+        long ejected = peers.values().stream().filter(peer -> peer.isEjected(now)).count();
+        if (stats.isEjected(now) || (ejected + 1) * 100 > (long) peers.size() * maxEjectionPercent) {
+            return;
+        }
+        stats.eject(baseEjectionNanos, maxEjectionNanos, now);
+        log.warn("Ejected {} instance {}: {}", instance.getServiceId(), key(instance), reason);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
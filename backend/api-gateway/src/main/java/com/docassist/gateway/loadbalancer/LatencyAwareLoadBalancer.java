@@ -0,0 +1,65 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Power of two choices: sample two instances at random and send the call to the one with the
+// lower expected wait, its average latency times (requests in flight + 1). Sampling keeps a
+// single fast instance from taking every call the moment it looks best.
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final InstanceStatsRegistry registry;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers,
+                                    InstanceStatsRegistry registry) {
+        this.suppliers = suppliers;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(cost(a, b) <= cost(b, a) ? a : b);
+    }
+
+    // An instance without samples yet is assumed to be as fast as the other candidate, so new
+    // or returning instances are judged by load alone until they have history.
+    private double cost(ServiceInstance instance, ServiceInstance other) {
+        InstanceStats stats = registry.stats(instance);
+        InstanceStats otherStats = registry.stats(other);
+        double latency = stats.samples() > 0 ? stats.latencyNanos()
+                : otherStats.samples() > 0 ? otherStats.latencyNanos() : 1;
+        return latency * (stats.inFlight() + 1);
+    }
+}
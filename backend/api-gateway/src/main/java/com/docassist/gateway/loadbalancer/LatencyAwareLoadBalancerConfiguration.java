@@ -0,0 +1,32 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Per-service load balancer configuration, applied through @LoadBalancerClients. Not a
+// @Configuration class, so it is only loaded into each service's own child context.
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   InstanceStatsRegistry registry) {
+        ServiceInstanceListSupplier healthChecked = ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+        return new OutlierEjectionServiceInstanceListSupplier(healthChecked, registry);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment, LoadBalancerClientFactory clientFactory, InstanceStatsRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), registry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs right after the load balancer has picked an instance. Latency is the time until the
+// response starts, not until it ends, so long answers do not read as a slow instance; streamed
+// responses (SSE, NDJSON) contribute only their outcome, since even their first line waits on
+// generation. Calls that fail before a response starts are recorded when they end. Cancelled
+// calls, such as a closed chat stream, release their in-flight slot without contributing a sample.
+@Component
+public class LoadBalancerStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+
+    public LoadBalancerStatsFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = chosen.getServer();
+        InstanceStats stats = registry.stats(instance);
+        stats.started();
+        long start = System.nanoTime();
+        AtomicBoolean recorded = new AtomicBoolean();
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            if (recorded.compareAndSet(false, true)) {
+                long now = System.nanoTime();
+                boolean failed = isInstanceFailure(response.getStatusCode(), response.getHeaders());
+                if (isStreaming(response.getHeaders().getContentType())) {
+                    registry.recordOutcome(instance, failed, now);
+                } else {
+                    registry.record(instance, now - start, failed, now);
+                }
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            stats.finished();
+            if (signal == SignalType.CANCEL || !recorded.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            boolean failed = signal == SignalType.ON_ERROR
+                    || isInstanceFailure(response.getStatusCode(), response.getHeaders());
+            registry.record(instance, now - start, failed, now);
+        });
+    }
+
+    // A 503 with Retry-After is load shedding in front of a shared dependency (the model
+    // provider), which every replica reports at once; it says nothing about this instance.
+    static boolean isInstanceFailure(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || !status.is5xxServerError()) {
+            return false;
+        }
+        return !(status.value() == HttpStatus.SERVICE_UNAVAILABLE.value() && headers.containsKey(HttpHeaders.RETRY_AFTER));
+    }
+
+    static boolean isStreaming(MediaType contentType) {
+        return contentType != null && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,40 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+// Hides ejected instances from the balancer. If every instance is ejected the full list is
+// returned, since a degraded instance is better than none.
+public class OutlierEjectionServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final InstanceStatsRegistry registry;
+
+    public OutlierEjectionServiceInstanceListSupplier(ServiceInstanceListSupplier delegate,
+                                                      InstanceStatsRegistry registry) {
+        super(delegate);
+        this.registry = registry;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get().map(this::withoutEjected);
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        return getDelegate().get(request).map(this::withoutEjected);
+    }
+
+    private List<ServiceInstance> withoutEjected(List<ServiceInstance> instances) {
+        long now = System.nanoTime();
+        List<ServiceInstance> available = instances.stream()
+                .filter(instance -> !registry.isEjected(instance, now))
+                .toList();
+        return available.isEmpty() ? instances : available;
+    }
+}
@@ -0,0 +1,49 @@
+package com.docassist.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// In-memory token buckets with the same refill rules as the Redis script. Used while Redis is
+// unreachable, so limits are then enforced per gateway instance instead of cluster-wide.
+class LocalTokenBuckets {
+
+    private final Cache<String, Bucket> buckets;
+
+    LocalTokenBuckets(long maxKeys, Duration idleExpiry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    Decision tryConsume(String key, int replenishRate, int burstCapacity, int cost, long nowNanos) {
+        Bucket bucket = buckets.get(key, k -> new Bucket(burstCapacity, nowNanos));
+        return bucket.tryConsume(replenishRate, burstCapacity, cost, nowNanos);
+    }
+
+    record Decision(boolean allowed, long remaining) {}
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private synchronized Decision tryConsume(int replenishRate, int burstCapacity, int cost, long nowNanos) {
+            double elapsedSeconds = Math.max(0, nowNanos - refilledAt) / 1_000_000_000.0;
+            tokens = Math.min(burstCapacity, tokens + elapsedSeconds * replenishRate);
+            refilledAt = nowNanos;
+
+            boolean allowed = tokens >= cost;
+            if (allowed) {
+                tokens -= cost;
+            }
+            return new Decision(allowed, (long) Math.floor(tokens));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.docassist.gateway.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// One token bucket per user, shared by all routes and stored in Redis. Each route sets its
+// own cost through user-rate-limiter.requested-tokens, so one chat completion drains the
+// bucket faster than a session listing. When Redis fails or is slow the decision is made by in-memory buckets,
+// and Redis is skipped for a short back-off before being tried again.
+@Component
+@Primary
+@Slf4j
+public class UserRateLimiter extends AbstractRateLimiter<UserRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "user-rate-limiter";
+
+    private static final String REQUESTED_TOKENS_ARG = CONFIGURATION_PROPERTY_NAME + ".requested-tokens";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/user_rate_limiter.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LocalTokenBuckets localBuckets;
+    private final int replenishRate;
+    private final int burstCapacity;
+    private final Duration redisTimeout;
+    private final Duration redisBackoff;
+
+    private volatile long redisRetryAt;
+
+    public UserRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                           ConfigurationService configurationService,
+                           GatewayProperties gatewayProperties,
+                           @Value("${app.rate-limit.replenish-rate:10}") int replenishRate,
+                           @Value("${app.rate-limit.burst-capacity:40}") int burstCapacity,
+                           @Value("${app.rate-limit.redis-timeout:100ms}") Duration redisTimeout,
+                           @Value("${app.rate-limit.redis-backoff:5s}") Duration redisBackoff,
+                           @Value("${app.rate-limit.local.max-keys:100000}") long localMaxKeys) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+        this.redisTimeout = redisTimeout;
+        this.redisBackoff = redisBackoff;
+        this.localBuckets = new LocalTokenBuckets(localMaxKeys, Duration.ofMinutes(10));
+        validateRouteCosts(gatewayProperties);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        int cost = loadConfiguration(routeId).getRequestedTokens();
+
+        if (System.currentTimeMillis() < redisRetryAt) {
+            return Mono.just(local(id, cost));
+        }
+
+        List<String> keys = List.of("user_rate_limiter.{" + id + "}");
+        List<String> args = List.of(String.valueOf(replenishRate), String.valueOf(burstCapacity), String.valueOf(cost));
+
+        return redisTemplate.execute(SCRIPT, keys, args)
+                .reduce(new ArrayList<Long>(), (values, part) -> {
+                    values.addAll(part);
+                    return values;
+                })
+                .timeout(redisTimeout)
+                .map(values -> response(values.get(0) == 1L, values.get(1), cost))
+                .onErrorResume(e -> {
+                    redisRetryAt = System.currentTimeMillis() + redisBackoff.toMillis();
+                    log.warn("Redis rate limiter unavailable, using local buckets for {}: {}", redisBackoff, e.toString());
+                    return Mono.just(local(id, cost));
+                });
+    }
+
+    // A route costing more than the bucket can ever hold would reject every call, so that is a
+    // configuration error caught at startup rather than on each request.
+    private void validateRouteCosts(GatewayProperties gatewayProperties) {
+        Stream.concat(
+                        gatewayProperties.getDefaultFilters().stream()
+                                .map(filter -> Map.entry(RouteDefinitionRouteLocator.DEFAULT_FILTERS, filter)),
+                        gatewayProperties.getRoutes().stream()
+                                .flatMap(route -> route.getFilters().stream()
+                                        .map(filter -> Map.entry(route.getId(), filter))))
+                .forEach(entry -> {
+                    FilterDefinition filter = entry.getValue();
+                    String cost = filter.getArgs().get(REQUESTED_TOKENS_ARG);
+                    if (cost != null && Integer.parseInt(cost.trim()) > burstCapacity) {
+                        throw new IllegalStateException("Route " + entry.getKey() + " costs " + cost.trim()
+                                + " tokens, more than app.rate-limit.burst-capacity (" + burstCapacity + ")");
+                    }
+                });
+    }
+
+    private Config loadConfiguration(String routeId) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            config = getConfig().get(RouteDefinitionRouteLocator.DEFAULT_FILTERS);
+        }
+        return config != null ? config : new Config();
+    }
+
+    private Response local(String id, int cost) {
+        LocalTokenBuckets.Decision decision = localBuckets.tryConsume(
+                id, replenishRate, burstCapacity, cost, System.nanoTime());
+        return response(decision.allowed(), decision.remaining(), cost);
+    }
+
+    Response response(boolean allowed, long remaining, int cost) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("RateLimit-Limit", String.valueOf(burstCapacity));
+        headers.put("RateLimit-Remaining", String.valueOf(remaining));
+        headers.put("RateLimit-Reset", String.valueOf(secondsToRefill(burstCapacity - remaining)));
+        if (!allowed) {
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, secondsToRefill(cost - remaining))));
+        }
+        return new Response(allowed, headers);
+    }
+
+    private long secondsToRefill(long tokens) {
+        return tokens <= 0 ? 0 : (tokens + replenishRate - 1) / replenishRate;
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int requestedTokens = 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.docassist.gateway.security;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Matches a path against a fixed set of prefixes in one pass over the path, with the same
+// semantics as path.startsWith(prefix) for any of them. Built once; lookups allocate nothing.
+public final class PathPrefixTrie {
+
+    private final Node root;
+
+    public PathPrefixTrie(Collection<String> prefixes) {
+        Builder builder = new Builder();
+        for (String prefix : prefixes) {
+            Builder node = builder;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+            }
+            node.terminal = true;
+        }
+        this.root = builder.build();
+    }
+
+    public boolean matches(String path) {
+        Node node = root;
+        if (node.terminal) {
+            return true;
+        }
+        for (int i = 0; i < path.length(); i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private boolean terminal;
+
+        private Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> child : children.entrySet()) {
+                keys[i] = child.getKey();
+                nodes[i] = child.getValue().build();
+                i++;
+            }
+            return new Node(keys, nodes, terminal);
+        }
+    }
+
+    // Children are kept in sorted arrays; open paths share long prefixes, so nodes are small.
+    private record Node(char[] keys, Node[] children, boolean terminal) {
+
+        private Node child(char c) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < c) {
+                    low = mid + 1;
+                } else if (keys[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+}
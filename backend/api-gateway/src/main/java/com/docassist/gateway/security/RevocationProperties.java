@@ -0,0 +1,21 @@
+package com.docassist.gateway.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// The filter is sized for expectedRevocations at falsePositiveRate; false positives cost one
+// exact check against auth-service, whose answer is kept for exactCheckTtl.
+@ConfigurationProperties(prefix = "app.security.revocation")
+public record RevocationProperties(
+        @DefaultValue("http://auth-service") String serviceUri,
+        @DefaultValue("100000") int expectedRevocations,
+        @DefaultValue("0.001") double falsePositiveRate,
+        @DefaultValue("15s") Duration refreshInterval,
+        @DefaultValue("10m") Duration rebuildInterval,
+        @DefaultValue("30s") Duration exactCheckTtl,
+        @DefaultValue("2s") Duration requestTimeout,
+        @DefaultValue("16MB") DataSize maxResponseSize) {
+}
@@ -0,0 +1,132 @@
+package com.docassist.gateway.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// Local replica of auth-service's revoked token ids. Every request checks the Bloom filter, which
+// answers "not revoked" for almost all tokens without leaving the process; only tokens the filter
+// flags are confirmed with auth-service, and that answer is cached. New revocations are pulled
+// every refresh-interval, and the filter is rebuilt from scratch every rebuild-interval so
+// expired revocations drop out. Until the first successful pull no token is treated as revoked.
+@Component
+@Slf4j
+public class TokenRevocations {
+
+    public enum Status { ACTIVE, REVOKED, UNKNOWN }
+
+    private static final Mono<Status> ACTIVE = Mono.just(Status.ACTIVE);
+    private static final ParameterizedTypeReference<Envelope<List<Revocation>>> REVOCATIONS =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<Envelope<Boolean>> REVOKED =
+            new ParameterizedTypeReference<>() {};
+
+    private final RevocationProperties properties;
+    private final WebClient webClient;
+    private final AsyncCache<String, Boolean> confirmed;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime latestRevokedAt;
+    private long rebuildAt;
+
+    public TokenRevocations(RevocationProperties properties, WebClient.Builder webClientBuilder,
+                            LoadBalancedExchangeFilterFunction loadBalancer) {
+        this.properties = properties;
+        this.webClient = webClientBuilder
+                .baseUrl(properties.serviceUri())
+                .filter(loadBalancer)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) properties.maxResponseSize().toBytes()))
+                .build();
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(properties.exactCheckTtl())
+                .buildAsync();
+    }
+
+    public Mono<Status> check(String tokenId) {
+        BloomFilter current = filter;
+        if (tokenId == null || current == null || !current.mightContain(tokenId)) {
+            return ACTIVE;
+        }
+        // Waiters share one lookup, so cancelling one request must not cancel it for the others.
+        return Mono.fromFuture(confirmed.get(tokenId, (id, executor) -> fetchRevoked(id).toFuture()), true)
+                .map(revoked -> revoked ? Status.REVOKED : Status.ACTIVE)
+                .onErrorResume(e -> {
+                    log.warn("Could not confirm revocation of token {}: {}", tokenId, e.getMessage());
+                    return Mono.just(Status.UNKNOWN);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.refresh-interval:15s}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        boolean rebuild = filter == null || now >= rebuildAt;
+        // Overlap the previous pull so revocations committed late are not skipped.
+        LocalDateTime since = rebuild || latestRevokedAt == null
+                ? null
+                : latestRevokedAt.minus(properties.refreshInterval());
+
+        List<Revocation> revocations;
+        try {
+            revocations = fetchRevocations(since).block();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh token revocations: {}", e.getMessage());
+            return;
+        }
+
+        if (rebuild) {
+            BloomFilter rebuilt = BloomFilter.create(
+                    Math.max(properties.expectedRevocations(), revocations.size() * 2), properties.falsePositiveRate());
+            revocations.forEach(revocation -> rebuilt.put(revocation.tokenId()));
+            filter = rebuilt;
+            latestRevokedAt = null;
+            rebuildAt = now + properties.rebuildInterval().toMillis();
+            log.debug("Rebuilt revocation filter with {} tokens", revocations.size());
+        } else {
+            BloomFilter current = filter;
+            revocations.forEach(revocation -> current.put(revocation.tokenId()));
+        }
+
+        revocations.stream()
+                .map(Revocation::revokedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .filter(latest -> latestRevokedAt == null || latest.isAfter(latestRevokedAt))
+                .ifPresent(latest -> latestRevokedAt = latest);
+    }
+
+    private Mono<List<Revocation>> fetchRevocations(LocalDateTime since) {
+        return webClient.get()
+                .uri(uri -> since == null
+                        ? uri.path("/internal/revocations").build()
+                        : uri.path("/internal/revocations").queryParam("since", since).build())
+                .retrieve()
+                .bodyToMono(REVOCATIONS)
+                .map(envelope -> envelope.data() != null ? envelope.data() : List.<Revocation>of())
+                .timeout(properties.requestTimeout());
+    }
+
+    private Mono<Boolean> fetchRevoked(String tokenId) {
+        return webClient.get()
+                .uri("/internal/revocations/{tokenId}", tokenId)
+                .retrieve()
+                .bodyToMono(REVOKED)
+                .map(envelope -> Boolean.TRUE.equals(envelope.data()))
+                .timeout(properties.requestTimeout());
+    }
+
+    record Envelope<T>(boolean success, String message, T data) {}
+
+    record Revocation(String tokenId, LocalDateTime revokedAt) {}
+}
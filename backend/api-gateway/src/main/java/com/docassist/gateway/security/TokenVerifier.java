@@ -0,0 +1,107 @@
+package com.docassist.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// Verifies access tokens with a single prebuilt parser and remembers the outcome. Clients resend
+// the same token on every request, so after the first full verification a token costs one
+// SHA-256 digest and a cache lookup. Entries never outlive the token's own expiry, and the
+// cache holds digests rather than the bearer tokens themselves. Revocation is checked separately
+// on every request by TokenRevocations, so a cached entry never outlives a logout.
+@Component
+public class TokenVerifier {
+
+    private final JwtParser parser;
+    private final Cache<ByteBuffer, VerifiedToken> verified;
+    private final Duration maxTtl;
+
+    public TokenVerifier(
+            @Value("${app.jwt.secret}") String secret,
+            @Value("${app.security.token-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.token-cache.max-ttl:5m}") Duration maxTtl) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build();
+        this.maxTtl = maxTtl;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        ByteBuffer digest = digest(token);
+        VerifiedToken cached = verified.getIfPresent(digest);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached);
+        }
+
+        VerifiedToken parsed = parse(token);
+        if (parsed == null) {
+            return Optional.empty();
+        }
+        verified.put(digest, parsed);
+        return Optional.of(parsed);
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (!"access".equals(claims.get("type", String.class)) || claims.getExpiration() == null) {
+                return null;
+            }
+            return new VerifiedToken(claims.getSubject(), claims.get("email", String.class), claims.getId(),
+                    claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // tokenId is the jti claim; tokens issued before it was added have none.
+    public record VerifiedToken(String userId, String email, String tokenId, Instant expiresAt) {}
+
+    private class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), value.expiresAt());
+            return Math.max(0, Math.min(remaining.toNanos(), maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
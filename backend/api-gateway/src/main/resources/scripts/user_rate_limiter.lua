@@ -0,0 +1,24 @@
+-- Token bucket per key, refilled continuously at ARGV[1] tokens per second up to ARGV[2].
+-- ARGV[3] is the cost of this request. Returns {allowed, remaining tokens}.
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+
+local state = redis.call('HMGET', key, 'tokens', 'timestamp')
+local tokens = tonumber(state[1]) or capacity
+local timestamp = tonumber(state[2]) or now
+
+local filled = math.min(capacity, tokens + math.max(0, now - timestamp) * rate)
+local allowed = filled >= requested
+if allowed then
+    filled = filled - requested
+end
+
+redis.call('HSET', key, 'tokens', tostring(filled), 'timestamp', tostring(now))
+redis.call('EXPIRE', key, math.ceil(capacity / rate) * 2)
+
+return { allowed and 1 or 0, math.floor(filled) }
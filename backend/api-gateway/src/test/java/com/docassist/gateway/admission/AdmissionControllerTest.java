@@ -0,0 +1,84 @@
+package com.docassist.gateway.admission;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+
+    private final AdmissionController controller = new AdmissionController(new AdmissionProperties(2, "interactive", Map.of(
+            "interactive", new AdmissionProperties.ClassSettings(3, 2, 10, Duration.ofSeconds(5)),
+            "bulk", new AdmissionProperties.ClassSettings(1, 1, 1, Duration.ofMillis(200)))));
+
+    @Test
+    void acquire_FreedSlot_GoesToHigherPriorityFirst() {
+        AdmissionController.Permit first = controller.acquire("interactive").block();
+        controller.acquire("interactive").block();
+
+        List<String> admitted = new ArrayList<>();
+        subscribe("bulk", admitted);
+        subscribe("interactive", admitted);
+
+        first.release();
+
+        assertThat(admitted).containsExactly("interactive");
+        assertThat(controller.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void acquire_LowPriorityWhileHigherQueued_IsShedImmediately() {
+        controller.acquire("interactive").block();
+        controller.acquire("interactive").block();
+        subscribe("interactive", new ArrayList<>());
+
+        assertThatThrownBy(() -> controller.acquire("bulk").block())
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessageContaining("higher priority");
+    }
+
+    @Test
+    void acquire_QueueFull_IsRejectedWithRetryAfter() {
+        controller.acquire("bulk").block();
+        subscribe("bulk", new ArrayList<>());
+
+        assertThatThrownBy(() -> controller.acquire("bulk").block())
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void acquire_WaitExceeded_TimesOutAndLeavesTheQueue() {
+        AdmissionController.Permit held = controller.acquire("bulk").block();
+
+        assertThatThrownBy(() -> controller.acquire("bulk").block())
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessageContaining("waited too long");
+
+        held.release();
+        assertThat(controller.inFlight()).isZero();
+    }
+
+    @Test
+    void release_IsIdempotent() {
+        AdmissionController.Permit permit = controller.acquire("interactive").block();
+
+        permit.release();
+        permit.release();
+
+        assertThat(controller.inFlight()).isZero();
+    }
+
+    private void subscribe(String admissionClass, List<String> admitted) {
+        controller.acquire(admissionClass)
+                .doOnNext(permit -> admitted.add(admissionClass))
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+}
@@ -0,0 +1,56 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceStatsRegistryTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            Duration.ofSeconds(10), 3, 3.0, 5, Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+
+    private final ServiceInstance fast = instance(8083);
+    private final ServiceInstance slow = instance(8093);
+
+    @Test
+    void record_ConsecutiveFailures_EjectsInstance() {
+        registry.stats(fast);
+        for (int i = 0; i < 3; i++) {
+            registry.record(slow, 10 * MS, true, i * MS);
+        }
+
+        assertThat(registry.isEjected(slow, 3 * MS)).isTrue();
+        assertThat(registry.isEjected(slow, 31_000 * MS)).isFalse();
+    }
+
+    @Test
+    void record_SlowOutlier_IsEjectedOnceBothHaveEnoughSamples() {
+        for (int i = 0; i < 5; i++) {
+            registry.record(fast, 100 * MS, false, i * MS);
+            registry.record(slow, 1000 * MS, false, i * MS);
+        }
+
+        assertThat(registry.isEjected(slow, 10 * MS)).isTrue();
+        assertThat(registry.isEjected(fast, 10 * MS)).isFalse();
+    }
+
+    @Test
+    void record_MaxEjectionPercent_KeepsHalfTheInstances() {
+        for (int i = 0; i < 3; i++) {
+            registry.record(fast, 10 * MS, true, i * MS);
+            registry.record(slow, 10 * MS, true, i * MS);
+        }
+
+        assertThat(registry.isEjected(fast, 3 * MS) && registry.isEjected(slow, 3 * MS)).isFalse();
+    }
+
+    static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance(null, "ai-service", "localhost", port, false);
+    }
+}
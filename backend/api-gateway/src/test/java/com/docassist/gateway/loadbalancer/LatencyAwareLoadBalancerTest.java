@@ -0,0 +1,50 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            Duration.ofSeconds(10), 5, 3.0, 20, Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+    private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, registry);
+
+    private final ServiceInstance fast = InstanceStatsRegistryTest.instance(8083);
+    private final ServiceInstance slow = InstanceStatsRegistryTest.instance(8093);
+
+    @Test
+    void choose_PrefersLowerLatency() {
+        registry.record(fast, 50 * MS, false, 0);
+        registry.record(slow, 500 * MS, false, 0);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(List.of(fast, slow)).getServer()).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void choose_BusyFastInstance_LosesToIdleSlowerOne() {
+        registry.record(fast, 50 * MS, false, 0);
+        registry.record(slow, 100 * MS, false, 0);
+        for (int i = 0; i < 4; i++) {
+            registry.stats(fast).started();
+        }
+
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(fast, slow));
+
+        assertThat(response.getServer()).isEqualTo(slow);
+    }
+
+    @Test
+    void choose_NoInstances_ReturnsEmptyResponse() {
+        assertThat(loadBalancer.choose(List.of()).hasServer()).isFalse();
+    }
+}
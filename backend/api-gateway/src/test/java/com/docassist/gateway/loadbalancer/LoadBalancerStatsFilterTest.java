@@ -0,0 +1,106 @@
+package com.docassist.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancerStatsFilterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(
+            Duration.ofSeconds(10), 3, 3.0, 5, Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+    private final LoadBalancerStatsFilter filter = new LoadBalancerStatsFilter(registry);
+    private final ServiceInstance instance = InstanceStatsRegistryTest.instance(8083);
+
+    @Test
+    void filter_SlowBody_RecordsTimeToFirstByte() {
+        run(exchange -> {
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return exchange.getResponse().writeWith(Flux.concat(
+                    Mono.just(chunk("{")),
+                    Mono.delay(Duration.ofMillis(300)).map(tick -> chunk("}"))));
+        });
+
+        assertThat(registry.stats(instance).samples()).isEqualTo(1);
+        assertThat(registry.stats(instance).latencyNanos()).isLessThan(250 * MS);
+    }
+
+    @Test
+    void filter_EventStream_RecordsOutcomeWithoutLatency() {
+        run(exchange -> {
+            exchange.getResponse().getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            return exchange.getResponse().writeWith(Flux.interval(Duration.ofMillis(50))
+                    .take(3)
+                    .map(tick -> chunk("event:token\ndata:{}\n\n")));
+        });
+
+        assertThat(registry.stats(instance).samples()).isZero();
+        assertThat(registry.stats(instance).consecutiveFailures()).isZero();
+        assertThat(registry.stats(instance).inFlight()).isZero();
+    }
+
+    @Test
+    void filter_ServiceUnavailableWithRetryAfter_IsNotAnInstanceFailure() {
+        run(exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        });
+
+        assertThat(registry.stats(instance).samples()).isEqualTo(1);
+        assertThat(registry.stats(instance).consecutiveFailures()).isZero();
+    }
+
+    @Test
+    void filter_ServerError_IsAnInstanceFailure() {
+        run(exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return exchange.getResponse().setComplete();
+        });
+
+        assertThat(registry.stats(instance).consecutiveFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ErrorBeforeResponse_IsAnInstanceFailure() {
+        MockServerWebExchange exchange = exchange();
+
+        filter.filter(exchange, ex -> Mono.error(new IllegalStateException("connection refused")))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+
+        assertThat(registry.stats(instance).consecutiveFailures()).isEqualTo(1);
+    }
+
+    private void run(GatewayFilterChain chain) {
+        filter.filter(exchange(), chain).block(Duration.ofSeconds(5));
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/ai/sessions"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR,
+                new DefaultResponse(instance));
+        return exchange;
+    }
+
+    private static DataBuffer chunk(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package com.docassist.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketsTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final LocalTokenBuckets buckets = new LocalTokenBuckets(100, Duration.ofMinutes(1));
+
+    @Test
+    void tryConsume_CostlyCalls_DrainTheBucketFaster() {
+        assertThat(buckets.tryConsume("user:a", 1, 20, 10, 0).allowed()).isTrue();
+        assertThat(buckets.tryConsume("user:a", 1, 20, 10, 0).allowed()).isTrue();
+
+        LocalTokenBuckets.Decision denied = buckets.tryConsume("user:a", 1, 20, 1, 0);
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.remaining()).isZero();
+    }
+
+    @Test
+    void tryConsume_RefillsOverTimeUpToCapacity() {
+        buckets.tryConsume("user:a", 2, 10, 10, 0);
+
+        assertThat(buckets.tryConsume("user:a", 2, 10, 5, 2 * SECOND).allowed()).isFalse();
+        assertThat(buckets.tryConsume("user:a", 2, 10, 5, 3 * SECOND).allowed()).isTrue();
+        assertThat(buckets.tryConsume("user:a", 2, 10, 1, 3600 * SECOND).remaining()).isEqualTo(9);
+    }
+
+    @Test
+    void tryConsume_KeysHaveSeparateBuckets() {
+        buckets.tryConsume("user:a", 1, 5, 5, 0);
+
+        assertThat(buckets.tryConsume("user:b", 1, 5, 5, 0).allowed()).isTrue();
+    }
+}
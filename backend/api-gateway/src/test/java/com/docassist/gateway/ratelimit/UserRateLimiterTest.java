@@ -0,0 +1,53 @@
+package com.docassist.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class UserRateLimiterTest {
+
+    @Test
+    void routeCostingMoreThanBurstCapacity_FailsAtStartup() {
+        GatewayProperties properties = gatewayProperties("ai-batch", "100");
+
+        assertThatThrownBy(() -> rateLimiter(properties, 60))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ai-batch");
+    }
+
+    @Test
+    void routeCostsWithinBurstCapacity_AreAccepted() {
+        GatewayProperties properties = gatewayProperties("ai-batch", "40");
+
+        assertThatCode(() -> rateLimiter(properties, 60)).doesNotThrowAnyException();
+    }
+
+    private static UserRateLimiter rateLimiter(GatewayProperties properties, int burstCapacity) {
+        return new UserRateLimiter(mock(ReactiveStringRedisTemplate.class), mock(ConfigurationService.class),
+                properties, 10, burstCapacity, Duration.ofMillis(100), Duration.ofSeconds(5), 1000);
+    }
+
+    private static GatewayProperties gatewayProperties(String routeId, String cost) {
+        FilterDefinition filter = new FilterDefinition();
+        filter.setName("RequestRateLimiter");
+        filter.addArg("user-rate-limiter.requested-tokens", cost);
+
+        RouteDefinition route = new RouteDefinition();
+        route.setId(routeId);
+        route.setFilters(List.of(filter));
+
+        GatewayProperties properties = new GatewayProperties();
+        properties.setRoutes(List.of(route));
+        return properties;
+    }
+}
@@ -0,0 +1,51 @@
+package com.docassist.gateway.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AreAlwaysFound() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            filter.put(tokenId);
+            added.add(tokenId);
+        }
+
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_OtherValues_StayNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void create_SizesBitsAndHashesForTheTargetRate() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.001);
+
+        assertThat(filter.bitCount()).isBetween(1_430_000L, 1_450_000L);
+        assertThat(filter.bitCount() % 64).isZero();
+        assertThat(filter.hashCount()).isEqualTo(10);
+    }
+}
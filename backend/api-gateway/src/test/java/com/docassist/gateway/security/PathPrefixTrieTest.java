@@ -0,0 +1,33 @@
+package com.docassist.gateway.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathPrefixTrieTest {
+
+    private final List<String> prefixes = List.of(
+            "/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/ai/v3/api-docs");
+    private final PathPrefixTrie trie = new PathPrefixTrie(prefixes);
+
+    @Test
+    void matches_AgreesWithStartsWith() {
+        List<String> paths = List.of(
+                "/api/auth/login", "/api/auth/login/extra", "/api/auth/log", "/api/auth/me",
+                "/api/ai/v3/api-docs/swagger-config", "/api/ai/chat", "", "/");
+
+        for (String path : paths) {
+            assertThat(trie.matches(path))
+                    .as(path)
+                    .isEqualTo(prefixes.stream().anyMatch(path::startsWith));
+        }
+    }
+
+    @Test
+    void matches_EmptyPrefix_MatchesEverything() {
+        assertThat(new PathPrefixTrie(List.of("")).matches("/api/documents")).isTrue();
+        assertThat(new PathPrefixTrie(List.of()).matches("/api/documents")).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package com.docassist.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenVerifierTest {
+
+    private static final String SECRET =
+            "dGhpcyBpcyBhIHZlcnkgbG9uZyBzZWNyZXQga2V5IGZvciBkb2Nhc3Npc3QgYXBwbGljYXRpb24gand0IHNpZ25pbmc=";
+
+    private final TokenVerifier verifier = new TokenVerifier(SECRET, 100, Duration.ofMinutes(5));
+
+    @Test
+    void verify_AccessToken_ReturnsClaimsAndCachesThem() {
+        String userId = UUID.randomUUID().toString();
+        String token = token(userId, "access", Instant.now().plusSeconds(60));
+
+        TokenVerifier.VerifiedToken first = verifier.verify(token).orElseThrow();
+        TokenVerifier.VerifiedToken second = verifier.verify(token).orElseThrow();
+
+        assertThat(first.userId()).isEqualTo(userId);
+        assertThat(first.email()).isEqualTo("user@example.com");
+        assertThat(first.tokenId()).isEqualTo("token-1");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verify_RefreshToken_IsRejected() {
+        String token = token(UUID.randomUUID().toString(), "refresh", Instant.now().plusSeconds(60));
+
+        assertThat(verifier.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verify_TamperedToken_IsRejected() {
+        String token = token(UUID.randomUUID().toString(), "access", Instant.now().plusSeconds(60));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(verifier.verify(tampered)).isEmpty();
+    }
+
+    @Test
+    void verify_ExpiredToken_IsRejected() {
+        String token = token(UUID.randomUUID().toString(), "access", Instant.now().minusSeconds(1));
+
+        assertThat(verifier.verify(token)).isEmpty();
+    }
+
+    private static String token(String userId, String type, Instant expiresAt) {
+        return Jwts.builder()
+                .id("token-1")
+                .subject(userId)
+                .claim("email", "user@example.com")
+                .claim("type", type)
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+}
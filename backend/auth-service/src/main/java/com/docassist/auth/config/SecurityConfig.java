@@ -2,6 +2,7 @@ package com.docassist.auth.config;
 
 import com.docassist.auth.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,7 +34,9 @@ public class SecurityConfig {
                                 "/api/auth/refresh",
                                 "/api/auth/v3/api-docs/**",
                                 "/api/auth/swagger-ui/**",
-                                "/api/auth/swagger-ui.html"
+                                "/api/auth/swagger-ui.html",
+                                "/actuator/health",
+                                "/internal/**"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -42,9 +45,10 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Raising the strength takes effect for existing users as they log in (AuthService rehashes).
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package com.docassist.auth.controller;
 
 import com.docassist.auth.dto.*;
+import com.docassist.auth.security.TokenClaims;
 import com.docassist.auth.service.AuthService;
 import com.docassist.common.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,7 +10,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -42,10 +43,19 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Token refreshed", response));
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the current access token and, if given, the refresh token")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @AuthenticationPrincipal TokenClaims claims,
+            @RequestBody(required = false) LogoutRequest request) {
+        authService.logout(claims, request);
+        return ResponseEntity.ok(ApiResponse.success("Logged out", null));
+    }
+
     @GetMapping("/me")
     @Operation(summary = "Get current user info")
-    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(Authentication authentication) {
-        UserResponse response = authService.getCurrentUser(authentication.getName());
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(@AuthenticationPrincipal TokenClaims claims) {
+        UserResponse response = authService.getCurrentUser(claims);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 }
@@ -0,0 +1,41 @@
+package com.docassist.auth.controller;
+
+import com.docassist.auth.dto.RevocationResponse;
+import com.docassist.auth.service.TokenRevocationService;
+import com.docassist.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Read by the gateway to replicate revocations. Not routed through the gateway, so only
+// callers inside the service network can reach it.
+@RestController
+@RequestMapping("/internal/revocations")
+@RequiredArgsConstructor
+@Hidden
+public class RevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<RevocationResponse>>> getRevocations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        List<RevocationResponse> revocations = tokenRevocationService.activeRevocations(since).stream()
+                .map(revocation -> RevocationResponse.builder()
+                        .tokenId(revocation.getTokenId())
+                        .revokedAt(revocation.getRevokedAt())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(ApiResponse.success(revocations));
+    }
+
+    @GetMapping("/{tokenId}")
+    public ResponseEntity<ApiResponse<Boolean>> isRevoked(@PathVariable String tokenId) {
+        return ResponseEntity.ok(ApiResponse.success(tokenRevocationService.isRevoked(tokenId)));
+    }
+}
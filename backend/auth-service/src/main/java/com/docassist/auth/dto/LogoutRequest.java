@@ -0,0 +1,14 @@
+package com.docassist.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogoutRequest {
+
+    // Optional; when present it is revoked along with the access token.
+    private String refreshToken;
+}
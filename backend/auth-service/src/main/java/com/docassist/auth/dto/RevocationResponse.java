@@ -0,0 +1,17 @@
+package com.docassist.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationResponse {
+    private String tokenId;
+    private LocalDateTime revokedAt;
+}
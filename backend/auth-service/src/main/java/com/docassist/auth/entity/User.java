@@ -1,5 +1,6 @@
 package com.docassist.auth.entity;
 
+import com.docassist.auth.service.UserCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "users", schema = "auth_db")
+@EntityListeners(UserCacheInvalidator.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,28 @@
+package com.docassist.auth.repository;
+
+import com.docassist.auth.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<Revocation> findByExpiresAtAfter(LocalDateTime now);
+
+    List<Revocation> findByExpiresAtAfterAndRevokedAtGreaterThanEqual(LocalDateTime now, LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    interface Revocation {
+        String getTokenId();
+        LocalDateTime getRevokedAt();
+    }
+}
@@ -8,12 +8,14 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
     private final SecretKey key;
+    private final JwtParser parser;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
 
@@ -22,6 +24,7 @@ public class JwtTokenProvider {
             @Value("${app.jwt.expiration-ms}") long accessTokenExpiration,
             @Value("${app.jwt.refresh-expiration-ms}") long refreshTokenExpiration) {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(key).build();
         this.accessTokenExpiration = accessTokenExpiration;
         this.refreshTokenExpiration = refreshTokenExpiration;
     }
@@ -39,6 +42,7 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userId.toString())
                 .claim("email", email)
                 .claim("type", type)
@@ -48,39 +52,25 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return UUID.fromString(claims.getSubject());
-    }
-
-    public String getEmailFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("email", String.class);
-    }
-
-    public String getTokenType(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("type", String.class);
-    }
-
-    public boolean validateToken(String token) {
+    // Verifies the token once and returns all the claims callers need; empty if it is invalid or expired.
+    public Optional<TokenClaims> parse(String token) {
         try {
-            parseToken(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new TokenClaims(
+                    UUID.fromString(claims.getSubject()),
+                    claims.get("email", String.class),
+                    claims.get("type", String.class),
+                    claims.getId(),
+                    claims.getExpiration().toInstant()));
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
     public long getAccessTokenExpiration() {
         return accessTokenExpiration;
     }
-
-    private Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
 }
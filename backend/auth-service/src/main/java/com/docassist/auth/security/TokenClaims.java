@@ -0,0 +1,25 @@
+package com.docassist.auth.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Claims of a token whose signature and expiry have been verified. Used as the authenticated
+// principal, so handlers get the user id and email without parsing the token again.
+public record TokenClaims(UUID userId, String email, String type, String tokenId, Instant expiresAt)
+        implements AuthenticatedPrincipal {
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
@@ -4,24 +4,29 @@ import com.docassist.auth.dto.*;
 import com.docassist.auth.entity.User;
 import com.docassist.auth.repository.UserRepository;
 import com.docassist.auth.security.JwtTokenProvider;
+import com.docassist.auth.security.TokenClaims;
 import com.docassist.common.exception.BadRequestException;
-import com.docassist.common.exception.ResourceNotFoundException;
+import com.docassist.common.exception.ServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCache userCache;
 
-    @Transactional
+    // Not transactional: hashing can wait in the hashing queue and should not hold a connection
+    // meanwhile. The unique email constraint still rejects a concurrent duplicate.
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new BadRequestException("Email already registered");
@@ -29,61 +34,86 @@ public class AuthService {
 
         User user = User.builder()
                 .email(request.getEmail().toLowerCase())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHashingService.encode(request.getPassword()))
                 .fullName(request.getFullName())
                 .build();
 
         user = userRepository.save(user);
 
-        return generateTokens(user);
+        return generateTokens(user.getId(), user.getEmail());
     }
 
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail().toLowerCase())
                 .orElseThrow(() -> new BadRequestException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadRequestException("Invalid email or password");
         }
+        rehashIfNeeded(user, request.getPassword());
 
-        return generateTokens(user);
+        // The client asks for /me right after logging in.
+        userCache.put(user);
+        return generateTokens(user.getId(), user.getEmail());
     }
 
     public AuthResponse refresh(RefreshRequest request) {
-        String token = request.getRefreshToken();
+        TokenClaims claims = jwtTokenProvider.parse(request.getRefreshToken())
+                .filter(TokenClaims::isRefreshToken)
+                .filter(refresh -> !tokenRevocationService.isRevoked(refresh.tokenId()))
+                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
-        if (!jwtTokenProvider.validateToken(token)) {
-            throw new BadRequestException("Invalid refresh token");
-        }
-
-        String type = jwtTokenProvider.getTokenType(token);
-        if (!"refresh".equals(type)) {
-            throw new BadRequestException("Invalid refresh token");
-        }
+        UserCache.CachedUser user = userCache.get(claims.userId());
+        return generateTokens(user.id(), user.email());
+    }
 
-        UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+    // Revokes the access token and, when it belongs to the same user, the refresh token.
+    public void logout(TokenClaims accessToken, LogoutRequest request) {
+        revoke(accessToken);
 
-        return generateTokens(user);
+        String refreshToken = request != null ? request.getRefreshToken() : null;
+        if (StringUtils.hasText(refreshToken)) {
+            jwtTokenProvider.parse(refreshToken)
+                    .filter(TokenClaims::isRefreshToken)
+                    .filter(refresh -> refresh.userId().equals(accessToken.userId()))
+                    .ifPresent(this::revoke);
+        }
     }
 
-    public UserResponse getCurrentUser(String userId) {
-        UUID id = UUID.fromString(userId);
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+    // Answered from the verified token and the user cache; the database is only read on a cache miss.
+    public UserResponse getCurrentUser(TokenClaims claims) {
+        UserCache.CachedUser user = userCache.get(claims.userId());
 
         return UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .createdAt(user.getCreatedAt())
+                .id(user.id())
+                .email(user.email())
+                .fullName(user.fullName())
+                .createdAt(user.createdAt())
                 .build();
     }
 
-    private AuthResponse generateTokens(User user) {
-        String accessToken = jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getEmail());
+    // Hashes written with an older bcrypt cost are upgraded on the next successful login, the only
+    // time the raw password is at hand. A saturated hashing pool just defers it to a later login.
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            user.setPasswordHash(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+        } catch (ServiceUnavailableException e) {
+            log.debug("Deferred password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private void revoke(TokenClaims token) {
+        tokenRevocationService.revoke(token.tokenId(), token.userId(), token.expiresAt(),
+                TokenRevocationService.REASON_LOGOUT);
+    }
+
+    private AuthResponse generateTokens(UUID userId, String email) {
+        String accessToken = jwtTokenProvider.generateAccessToken(userId, email);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(userId, email);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
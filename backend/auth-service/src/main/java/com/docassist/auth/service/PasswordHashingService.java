@@ -0,0 +1,118 @@
+package com.docassist.auth.service;
+
+import com.docassist.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Runs password hashing on a small pool sized to the CPU count instead of on request threads, so
+// a burst of logins queues here rather than occupying every Tomcat thread and starving /me and
+// /refresh. Work that cannot start within max-queue-time, or that finds the queue full, is
+// rejected with 503 and Retry-After.
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry registry;
+    private final Duration maxQueueTime;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry registry,
+            @Value("${app.password.hashing.threads:0}") int threads,
+            @Value("${app.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.password.hashing.max-queue-time:2s}") Duration maxQueueTime) {
+        this.passwordEncoder = passwordEncoder;
+        this.registry = registry;
+        this.maxQueueTime = maxQueueTime;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("auth.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .register(registry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(() -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    // Only reads the cost from the hash prefix, so it is cheap enough for the request thread.
+    public boolean needsRehash(String passwordHash) {
+        return passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Supplier<T> work) {
+        // Whoever claims the task first decides its fate: the worker by starting it, or the caller
+        // by giving up once max-queue-time has passed. A task the caller gave up on is skipped.
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> claimed.compareAndSet(false, true) ? work.get() : null);
+        } catch (RejectedExecutionException e) {
+            throw rejected("queue_full");
+        }
+
+        try {
+            try {
+                return future.get(maxQueueTime.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                    throw rejected("queue_timeout");
+                }
+                // Already hashing; a single hash is short, so let it finish.
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted");
+        }
+    }
+
+    private ServiceUnavailableException rejected(String reason) {
+        registry.counter("auth.password.hashing.rejected", "reason", reason).increment();
+        log.warn("Rejected password hashing request: {}", reason);
+        return new ServiceUnavailableException("Too many sign-in requests, please retry shortly", RETRY_AFTER);
+    }
+}
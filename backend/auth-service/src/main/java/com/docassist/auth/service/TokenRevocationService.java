@@ -0,0 +1,63 @@
+package com.docassist.auth.service;
+
+import com.docassist.auth.entity.RevokedToken;
+import com.docassist.auth.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+// Source of truth for revoked token ids (jti). The gateway replicates the unexpired ones into a
+// Bloom filter and only asks isRevoked for the few tokens the filter flags.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    public static final String REASON_LOGOUT = "logout";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Transactional
+    public void revoke(String tokenId, UUID userId, Instant expiresAt, String reason) {
+        // Tokens issued before token ids were added cannot be revoked; they expire on their own.
+        if (tokenId == null || !expiresAt.isAfter(Instant.now()) || revokedTokenRepository.existsById(tokenId)) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .userId(userId)
+                .reason(reason)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build());
+        log.info("Revoked token {} of user {} ({})", tokenId, userId, reason);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokenRepository.existsById(tokenId);
+    }
+
+    // Revocations of tokens that have not expired yet, optionally only those recorded since a point in time.
+    public List<RevokedTokenRepository.Revocation> activeRevocations(LocalDateTime since) {
+        LocalDateTime now = LocalDateTime.now();
+        return since == null
+                ? revokedTokenRepository.findByExpiresAtAfter(now)
+                : revokedTokenRepository.findByExpiresAtAfterAndRevokedAtGreaterThanEqual(now, since);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocation.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+    }
+}
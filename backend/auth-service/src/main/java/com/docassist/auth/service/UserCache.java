@@ -0,0 +1,75 @@
+package com.docassist.auth.service;
+
+import com.docassist.auth.entity.User;
+import com.docassist.auth.repository.UserRepository;
+import com.docassist.common.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable snapshots of users by id for /me and token refresh, which otherwise read the users
+// table on every call. Entries are evicted when the user row changes (UserCacheInvalidator); the
+// TTL bounds how long other auth-service instances may serve a stale copy. Password hashes are
+// never cached, so login always reads the row.
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, CachedUser> users;
+
+    public UserCache(
+            UserRepository userRepository,
+            @Value("${app.user-cache.max-size:10000}") long maxSize,
+            @Value("${app.user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public CachedUser get(UUID id) {
+        CachedUser user = users.get(id, key -> userRepository.findById(key).map(CachedUser::of).orElse(null));
+        if (user == null) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        return user;
+    }
+
+    public void put(User user) {
+        users.put(user.getId(), CachedUser.of(user));
+    }
+
+    public void evict(UUID id) {
+        users.invalidate(id);
+    }
+
+    // Evicts right away and again after commit, so a concurrent read that reloaded the old row
+    // before the commit does not linger in the cache.
+    @EventListener
+    public void userChanged(UserCacheInvalidator.UserChanged event) {
+        evict(event.userId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(event.userId());
+                }
+            });
+        }
+    }
+
+    public record CachedUser(UUID id, String email, String fullName, LocalDateTime createdAt) {
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getEmail(), user.getFullName(), user.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.docassist.auth.service;
+
+import com.docassist.auth.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// JPA listener on User. Hibernate creates it while the entity manager factory is being built, so
+// it must not depend on anything that needs a repository; it only announces the change and
+// UserCache evicts in response.
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        eventPublisher.publishEvent(new UserChanged(user.getId()));
+    }
+
+    public record UserChanged(UUID userId) {}
+}
@@ -4,16 +4,18 @@ import com.docassist.auth.dto.*;
 import com.docassist.auth.entity.User;
 import com.docassist.auth.repository.UserRepository;
 import com.docassist.auth.security.JwtTokenProvider;
+import com.docassist.auth.security.TokenClaims;
 import com.docassist.common.exception.BadRequestException;
 import com.docassist.common.exception.ResourceNotFoundException;
+import com.docassist.common.exception.ServiceUnavailableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,11 +31,17 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private AuthService authService;
 
@@ -57,7 +65,7 @@ class AuthServiceTest {
         RegisterRequest request = new RegisterRequest("Test User", "test@example.com", "password123");
 
         when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(passwordEncoder.encode("password123")).thenReturn("encoded-password");
+        when(passwordHashingService.encode("password123")).thenReturn("encoded-password");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         when(jwtTokenProvider.generateAccessToken(any(UUID.class), anyString())).thenReturn("access-token");
         when(jwtTokenProvider.generateRefreshToken(any(UUID.class), anyString())).thenReturn("refresh-token");
@@ -87,7 +95,7 @@ class AuthServiceTest {
         LoginRequest request = new LoginRequest("test@example.com", "password123");
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("password123", "encoded-password")).thenReturn(true);
+        when(passwordHashingService.matches("password123", "encoded-password")).thenReturn(true);
         when(jwtTokenProvider.generateAccessToken(any(UUID.class), anyString())).thenReturn("access-token");
         when(jwtTokenProvider.generateRefreshToken(any(UUID.class), anyString())).thenReturn("refresh-token");
         when(jwtTokenProvider.getAccessTokenExpiration()).thenReturn(86400000L);
@@ -113,7 +121,7 @@ class AuthServiceTest {
         LoginRequest request = new LoginRequest("test@example.com", "wrong-password");
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("wrong-password", "encoded-password")).thenReturn(false);
+        when(passwordHashingService.matches("wrong-password", "encoded-password")).thenReturn(false);
 
         assertThatThrownBy(() -> authService.login(request))
                 .isInstanceOf(BadRequestException.class)
@@ -121,20 +129,66 @@ class AuthServiceTest {
     }
 
     @Test
-    void getCurrentUser_Success() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+    void login_Success_WarmsUserCache() {
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("password123", "encoded-password")).thenReturn(true);
+
+        authService.login(request);
+
+        verify(userCache).put(testUser);
+    }
+
+    @Test
+    void login_OutdatedHashCost_RehashesPassword() {
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("password123", "encoded-password")).thenReturn(true);
+        when(passwordHashingService.needsRehash("encoded-password")).thenReturn(true);
+        when(passwordHashingService.encode("password123")).thenReturn("stronger-password");
+
+        authService.login(request);
+
+        assertThat(testUser.getPasswordHash()).isEqualTo("stronger-password");
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void login_RehashRejected_StillSucceeds() {
+        LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("password123", "encoded-password")).thenReturn(true);
+        when(passwordHashingService.needsRehash("encoded-password")).thenReturn(true);
+        when(passwordHashingService.encode("password123")).thenThrow(new ServiceUnavailableException("busy"));
+        when(jwtTokenProvider.generateAccessToken(userId, "test@example.com")).thenReturn("access-token");
+
+        AuthResponse response = authService.login(request);
+
+        assertThat(response.getAccessToken()).isEqualTo("access-token");
+        assertThat(testUser.getPasswordHash()).isEqualTo("encoded-password");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void getCurrentUser_AnsweredFromClaimsAndCache() {
+        when(userCache.get(userId)).thenReturn(cachedUser());
 
-        UserResponse response = authService.getCurrentUser(userId.toString());
+        UserResponse response = authService.getCurrentUser(claims("access", "access-jti"));
 
+        assertThat(response.getId()).isEqualTo(userId);
         assertThat(response.getEmail()).isEqualTo("test@example.com");
         assertThat(response.getFullName()).isEqualTo("Test User");
+        verifyNoInteractions(userRepository, jwtTokenProvider);
     }
 
     @Test
     void getCurrentUser_NotFound_ThrowsException() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.get(userId)).thenThrow(new ResourceNotFoundException("User", "id", userId));
 
-        assertThatThrownBy(() -> authService.getCurrentUser(userId.toString()))
+        assertThatThrownBy(() -> authService.getCurrentUser(claims("access", "access-jti")))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
 
@@ -142,27 +196,84 @@ class AuthServiceTest {
     void refresh_Success() {
         RefreshRequest request = new RefreshRequest("valid-refresh-token");
 
-        when(jwtTokenProvider.validateToken("valid-refresh-token")).thenReturn(true);
-        when(jwtTokenProvider.getTokenType("valid-refresh-token")).thenReturn("refresh");
-        when(jwtTokenProvider.getUserIdFromToken("valid-refresh-token")).thenReturn(userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(jwtTokenProvider.generateAccessToken(any(UUID.class), anyString())).thenReturn("new-access-token");
-        when(jwtTokenProvider.generateRefreshToken(any(UUID.class), anyString())).thenReturn("new-refresh-token");
+        when(jwtTokenProvider.parse("valid-refresh-token")).thenReturn(Optional.of(claims("refresh", "refresh-jti")));
+        when(tokenRevocationService.isRevoked("refresh-jti")).thenReturn(false);
+        when(userCache.get(userId)).thenReturn(cachedUser());
+        when(jwtTokenProvider.generateAccessToken(userId, "test@example.com")).thenReturn("new-access-token");
+        when(jwtTokenProvider.generateRefreshToken(userId, "test@example.com")).thenReturn("new-refresh-token");
         when(jwtTokenProvider.getAccessTokenExpiration()).thenReturn(86400000L);
 
         AuthResponse response = authService.refresh(request);
 
         assertThat(response.getAccessToken()).isEqualTo("new-access-token");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void refresh_AccessToken_ThrowsBadRequest() {
+        RefreshRequest request = new RefreshRequest("access-token");
+
+        when(jwtTokenProvider.parse("access-token")).thenReturn(Optional.of(claims("access", "access-jti")));
+
+        assertThatThrownBy(() -> authService.refresh(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void refresh_RevokedToken_ThrowsBadRequest() {
+        RefreshRequest request = new RefreshRequest("revoked-refresh-token");
+
+        when(jwtTokenProvider.parse("revoked-refresh-token")).thenReturn(Optional.of(claims("refresh", "refresh-jti")));
+        when(tokenRevocationService.isRevoked("refresh-jti")).thenReturn(true);
+
+        assertThatThrownBy(() -> authService.refresh(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid refresh token");
+        verifyNoInteractions(userCache);
     }
 
     @Test
     void refresh_InvalidToken_ThrowsBadRequest() {
         RefreshRequest request = new RefreshRequest("invalid-token");
 
-        when(jwtTokenProvider.validateToken("invalid-token")).thenReturn(false);
+        when(jwtTokenProvider.parse("invalid-token")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> authService.refresh(request))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("Invalid refresh token");
     }
+
+    @Test
+    void logout_RevokesAccessAndRefreshTokens() {
+        TokenClaims access = claims("access", "access-jti");
+        TokenClaims refresh = claims("refresh", "refresh-jti");
+        when(jwtTokenProvider.parse("refresh-token")).thenReturn(Optional.of(refresh));
+
+        authService.logout(access, new LogoutRequest("refresh-token"));
+
+        verify(tokenRevocationService).revoke("access-jti", userId, access.expiresAt(), TokenRevocationService.REASON_LOGOUT);
+        verify(tokenRevocationService).revoke("refresh-jti", userId, refresh.expiresAt(), TokenRevocationService.REASON_LOGOUT);
+    }
+
+    @Test
+    void logout_RefreshTokenOfAnotherUser_IsNotRevoked() {
+        TokenClaims access = claims("access", "access-jti");
+        TokenClaims otherUsersRefresh = new TokenClaims(UUID.randomUUID(), "other@example.com", "refresh",
+                "other-jti", Instant.now().plusSeconds(86400));
+        when(jwtTokenProvider.parse("other-refresh-token")).thenReturn(Optional.of(otherUsersRefresh));
+
+        authService.logout(access, new LogoutRequest("other-refresh-token"));
+
+        verify(tokenRevocationService).revoke(eq("access-jti"), eq(userId), any(Instant.class), anyString());
+        verifyNoMoreInteractions(tokenRevocationService);
+    }
+
+    private TokenClaims claims(String type, String tokenId) {
+        return new TokenClaims(userId, "test@example.com", type, tokenId, Instant.now().plusSeconds(3600));
+    }
+
+    private UserCache.CachedUser cachedUser() {
+        return new UserCache.CachedUser(userId, "test@example.com", "Test User", testUser.getCreatedAt());
+    }
 }
@@ -0,0 +1,109 @@
+package com.docassist.auth.service;
+
+import com.docassist.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_RunOnHashingPool() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), registry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("password123");
+
+        assertThat(service.matches("password123", hash)).isTrue();
+        assertThat(service.matches("wrong-password", hash)).isFalse();
+    }
+
+    @Test
+    void needsRehash_WhenConfiguredCostIsHigher() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), registry, 1, 4, Duration.ofSeconds(5));
+
+        assertThat(service.needsRehash(weakHash)).isTrue();
+        assertThat(service.needsRehash(service.encode("password123"))).isFalse();
+    }
+
+    @Test
+    void queueFull_RejectsWithRetryAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        service = new PasswordHashingService(blockingEncoder(release), registry, 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> service.encode("third"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(e -> assertThat(((ServiceUnavailableException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(1)));
+        assertThat(registry.counter("auth.password.hashing.rejected", "reason", "queue_full").count())
+                .isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+    }
+
+    @Test
+    void queueTimeout_RejectsAndSkipsTheWork() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = blockingEncoder(release);
+        service = new PasswordHashingService(encoder, registry, 1, 4, Duration.ofMillis(100));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        awaitActive();
+
+        assertThatThrownBy(() -> service.encode("second"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        release.countDown();
+        // The first call overran max-queue-time while hashing and is still answered.
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed");
+        service.shutdown();
+        verify(encoder, timeout(1000).times(1)).encode(anyString());
+        verify(encoder, never()).encode("second");
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch release) {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hashed";
+        });
+        return encoder;
+    }
+
+    private void awaitActive() throws InterruptedException {
+        while (registry.get("auth.password.hashing.active").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitQueued(int depth) throws InterruptedException {
+        awaitActive();
+        while (registry.get("auth.password.hashing.queue.depth").gauge().value() < depth) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.docassist.auth.service;
+
+import com.docassist.auth.entity.User;
+import com.docassist.auth.repository.UserRepository;
+import com.docassist.common.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserCache userCache = new UserCache(userRepository, 100, Duration.ofMinutes(5));
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .passwordHash("encoded-password")
+                .fullName("Test User")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void get_SecondCall_IsServedFromCache() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userCache.get(user.getId());
+        UserCache.CachedUser cached = userCache.get(user.getId());
+
+        assertThat(cached.email()).isEqualTo("test@example.com");
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void put_WarmsCacheWithoutRepositoryRead() {
+        userCache.put(user);
+
+        assertThat(userCache.get(user.getId()).fullName()).isEqualTo("Test User");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void evict_ForcesReload() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        userCache.get(user.getId());
+
+        userCache.evict(user.getId());
+        userCache.get(user.getId());
+
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void userChanged_InTransaction_EvictsNowAndAfterCommit() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userCache.userChanged(new UserCacheInvalidator.UserChanged(user.getId()));
+            userCache.get(user.getId());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            userCache.get(user.getId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void get_MissingUser_ThrowsAndIsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userCache.get(id)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> userCache.get(id)).isInstanceOf(ResourceNotFoundException.class);
+        verify(userRepository, times(2)).findById(id);
+    }
+}
@@ -0,0 +1,66 @@
+package com.docassist.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Login throughput (one bcrypt verification per login) for candidate app.password.bcrypt-strength
+// values, with one caller per core. "direct" verifies on the calling thread; "pooled" goes through
+// PasswordHashingService as AuthService does. Divide the score by the core count for logins/s/core.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(Threads.MAX)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHashingService hashingService;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+        hashingService = new PasswordHashingService(encoder, new SimpleMeterRegistry(),
+                cores, cores * 4, Duration.ofMinutes(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Benchmark
+    public boolean direct() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean pooled() {
+        return hashingService.matches(PASSWORD, hash);
+    }
+}
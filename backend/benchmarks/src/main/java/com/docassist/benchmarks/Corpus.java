@@ -0,0 +1,132 @@
+package com.docassist.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Document text for the benchmarks. By default the text is generated: prose-like paragraphs whose
+// word frequencies follow a Zipf distribution, with numbers, punctuation and the odd long
+// identifier, seeded so every run and every commit measures the same input. Setting
+// -Dbenchmark.corpus.dir=<dir> uses real documents instead (small.txt, 1mb.txt, 50mb.txt).
+public final class Corpus {
+
+    public static final String SMALL = "small";
+    public static final String ONE_MB = "1mb";
+    public static final String FIFTY_MB = "50mb";
+
+    private static final String[] COMMON_WORDS = (
+            "the of and to in a is that for it as was with be by on not he this are or his from at which "
+            + "but have an they you were their one all we can her has there been if more when will would "
+            + "who so no out up into than them about may its only other new some could time these two "
+            + "first then do any like my now over such our man me even most made after also did many "
+            + "before must through back years where much your way well down should because each just "
+            + "those people how too little state good very make world still own see men work long get "
+            + "here between both life being under never day same another know while last might us great "
+            + "old year off come since against go came right used take three").split(" ");
+
+    private static final String[] DOMAIN_WORDS = (
+            "agreement party parties contract clause section shall notice period termination payment "
+            + "invoice services provider customer obligations liability warranty confidential information "
+            + "effective date schedule appendix requirements policy procedure employee employer compensation "
+            + "revenue quarter fiscal report analysis results performance growth market region operating "
+            + "expenses margin forecast budget approval committee review compliance regulation audit risk "
+            + "security data access system application user account document version release").split(" ");
+
+    private static final String[] VOCABULARY = vocabulary();
+    private static final double[] CUMULATIVE_WEIGHTS = zipfWeights(VOCABULARY.length, 1.07);
+
+    private Corpus() {
+    }
+
+    public static String text(String size) {
+        String dir = System.getProperty("benchmark.corpus.dir");
+        if (dir != null) {
+            try {
+                return Files.readString(Path.of(dir, size + ".txt"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read corpus " + size + " from " + dir, e);
+            }
+        }
+        return generate(bytes(size), 42);
+    }
+
+    static int bytes(String size) {
+        return switch (size) {
+            case SMALL -> 4 * 1024;
+            case ONE_MB -> 1024 * 1024;
+            case FIFTY_MB -> 50 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("Unknown corpus size: " + size);
+        };
+    }
+
+    static String generate(int targetLength, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder text = new StringBuilder(targetLength + 256);
+        while (text.length() < targetLength) {
+            int sentences = 3 + random.nextInt(6);
+            for (int s = 0; s < sentences; s++) {
+                appendSentence(text, random);
+                text.append(s + 1 < sentences ? " " : "\n\n");
+            }
+        }
+        text.setLength(targetLength);
+        return text.toString();
+    }
+
+    private static void appendSentence(StringBuilder text, SplittableRandom random) {
+        int words = 6 + random.nextInt(22);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(random.nextInt(12) == 0 ? ", " : " ");
+            }
+            int roll = random.nextInt(40);
+            if (roll == 0) {
+                text.append(random.nextInt(10_000));
+            } else if (roll == 1) {
+                text.append(word(random)).append('-').append(word(random)).append('_').append(random.nextInt(100));
+            } else {
+                String word = word(random);
+                text.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            }
+        }
+        text.append(random.nextInt(15) == 0 ? '?' : '.');
+    }
+
+    private static String word(SplittableRandom random) {
+        int index = Arrays.binarySearch(CUMULATIVE_WEIGHTS, random.nextDouble());
+        return VOCABULARY[Math.min(index < 0 ? -index - 1 : index, VOCABULARY.length - 1)];
+    }
+
+    // The long tail mixes domain terms with pseudo-words, so the vocabulary is not trivially small.
+    private static String[] vocabulary() {
+        SplittableRandom random = new SplittableRandom(7);
+        String[] words = new String[5000];
+        System.arraycopy(COMMON_WORDS, 0, words, 0, COMMON_WORDS.length);
+        System.arraycopy(DOMAIN_WORDS, 0, words, COMMON_WORDS.length, DOMAIN_WORDS.length);
+        for (int i = COMMON_WORDS.length + DOMAIN_WORDS.length; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(9);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static double[] zipfWeights(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,49 @@
+package com.docassist.document.service;
+
+import com.docassist.benchmarks.Corpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Chunking and token estimation run once per uploaded document over its full extracted text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TextChunkingBenchmark {
+
+    @Param({Corpus.SMALL, Corpus.ONE_MB, Corpus.FIFTY_MB})
+    private String corpus;
+
+    private String text;
+    private TextChunkingService chunkingService;
+
+    @Setup
+    public void setUp() {
+        text = Corpus.text(corpus);
+        chunkingService = new TextChunkingService(500, 50);
+    }
+
+    @Benchmark
+    public List<String> chunkText() {
+        return chunkingService.chunkText(text);
+    }
+
+    @Benchmark
+    public int estimateTokenCount() {
+        return chunkingService.estimateTokenCount(text);
+    }
+}
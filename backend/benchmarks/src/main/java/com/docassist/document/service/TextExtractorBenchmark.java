@@ -0,0 +1,45 @@
+package com.docassist.document.service;
+
+import com.docassist.benchmarks.Corpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Type detection plus extraction through Tika, fed from memory so disk speed does not show up.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TextExtractorBenchmark {
+
+    @Param({Corpus.SMALL, Corpus.ONE_MB, Corpus.FIFTY_MB})
+    private String corpus;
+
+    private byte[] document;
+    private TextExtractorService extractorService;
+
+    @Setup
+    public void setUp() {
+        document = Corpus.text(corpus).getBytes(StandardCharsets.UTF_8);
+        extractorService = new TextExtractorService();
+    }
+
+    @Benchmark
+    public String extractPlainText() {
+        return extractorService.extractText(new ByteArrayInputStream(document), "text/plain");
+    }
+}
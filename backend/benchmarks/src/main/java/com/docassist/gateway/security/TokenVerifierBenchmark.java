@@ -0,0 +1,84 @@
+package com.docassist.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Access token verification as done by the gateway for every authenticated request. "cached"
+// resends one token, as a client does between logins; "uncached" cycles through far more distinct
+// tokens than the cache holds, so every call pays for signature verification and claims parsing.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerifierBenchmark {
+
+    private static final int DISTINCT_TOKENS = 16_384;
+
+    @Param({"cached", "uncached"})
+    private String mode;
+
+    private TokenVerifier verifier;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        String encodedSecret = Encoders.BASE64.encode(secret);
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(encodedSecret));
+
+        boolean cached = "cached".equals(mode);
+        verifier = new TokenVerifier(encodedSecret, cached ? 10_000 : 16, Duration.ofMinutes(5));
+        tokens = new String[cached ? 1 : DISTINCT_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = accessToken(key);
+        }
+    }
+
+    @Benchmark
+    public Optional<TokenVerifier.VerifiedToken> verify() {
+        String token = tokens[next];
+        next = (next + 1) % tokens.length;
+        return verifier.verify(token);
+    }
+
+    // Same shape as the tokens auth-service issues.
+    private static String accessToken(SecretKey key) {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject(userId.toString())
+                .id(UUID.randomUUID().toString())
+                .claim("email", userId + "@example.com")
+                .claim("type", "access")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(24))))
+                .signWith(key)
+                .compact();
+    }
+}
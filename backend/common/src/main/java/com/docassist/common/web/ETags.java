@@ -0,0 +1,27 @@
+package com.docassist.common.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Builds a quoted strong ETag from the values a representation is derived from, such as an
+// entity version or the count and latest change of a collection.
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        String joined = Arrays.stream(parts).map(Objects::toString).collect(Collectors.joining("|"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(joined.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
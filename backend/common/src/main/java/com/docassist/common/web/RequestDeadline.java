@@ -0,0 +1,76 @@
+package com.docassist.common.web;
+
+import com.docassist.common.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// The point in time after which nobody is waiting for the current request any more. The gateway
+// sends it as epoch milliseconds in X-Request-Deadline and RequestDeadlineFilter binds it to the
+// request thread. Without a deadline every check passes and every timeout is left as configured.
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Request-Deadline";
+
+    private static final ThreadLocal<Instant> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static Optional<Instant> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static Optional<Duration> remaining() {
+        Instant deadline = CURRENT.get();
+        if (deadline == null) {
+            return Optional.empty();
+        }
+        Duration remaining = Duration.between(Instant.now(), deadline);
+        return Optional.of(remaining.isNegative() ? Duration.ZERO : remaining);
+    }
+
+    public static void check(String stage) {
+        if (remaining().filter(Duration::isZero).isPresent()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    // The shorter of a configured timeout and the time left before the deadline.
+    public static Duration cap(Duration timeout) {
+        return remaining().filter(remaining -> remaining.compareTo(timeout) < 0).orElse(timeout);
+    }
+
+    // Runs work under the given deadline, e.g. on a thread other than the request thread.
+    public static <T> T callWith(Instant deadline, Supplier<T> work) {
+        Instant previous = bind(deadline);
+        try {
+            return work.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    static Instant bind(Instant deadline) {
+        Instant previous = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        return previous;
+    }
+
+    static Instant parse(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.docassist.common.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+// Binds the gateway's deadline to the request thread for the synchronous part of the request.
+// Requests that arrive after their deadline are answered with 504 without doing any work.
+@Component
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Instant deadline = RequestDeadline.parse(request.getHeader(RequestDeadline.HEADER));
+        if (deadline == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!deadline.isAfter(Instant.now())) {
+            log.debug("Dropping {} {}: deadline already passed", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            return;
+        }
+
+        Instant previous = RequestDeadline.bind(deadline);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.bind(previous);
+        }
+    }
+}
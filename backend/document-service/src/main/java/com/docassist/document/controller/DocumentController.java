@@ -7,10 +7,12 @@ import com.docassist.document.service.DocumentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -37,18 +39,26 @@ public class DocumentController {
     @GetMapping
     @Operation(summary = "List user documents")
     public ResponseEntity<ApiResponse<List<DocumentResponse>>> list(
-            @RequestHeader("X-User-Id") String userId) {
+            @RequestHeader("X-User-Id") String userId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(documentService.getUserDocumentsETag(UUID.fromString(userId)))) {
+            return null;
+        }
         List<DocumentResponse> documents = documentService.getUserDocuments(UUID.fromString(userId));
-        return ResponseEntity.ok(ApiResponse.success(documents));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(ApiResponse.success(documents));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get document details")
     public ResponseEntity<ApiResponse<DocumentResponse>> get(
             @PathVariable UUID id,
-            @RequestHeader("X-User-Id") String userId) {
+            @RequestHeader("X-User-Id") String userId,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(documentService.getDocumentETag(id, UUID.fromString(userId)))) {
+            return null;
+        }
         DocumentResponse response = documentService.getDocument(id, UUID.fromString(userId));
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(ApiResponse.success(response));
     }
 
     @GetMapping("/{id}/status")
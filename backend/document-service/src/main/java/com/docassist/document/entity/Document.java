@@ -2,6 +2,7 @@ package com.docassist.document.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -42,6 +43,12 @@ public class Document {
     @Column(name = "page_count")
     private Integer pageCount;
 
+    // Bumped on every update; drives the ETags of document reads.
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<DocumentChunk> chunks = new ArrayList<>();
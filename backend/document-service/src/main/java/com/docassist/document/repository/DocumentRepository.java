@@ -2,8 +2,11 @@ package com.docassist.document.repository;
 
 import com.docassist.document.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +16,21 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
     List<Document> findByUserIdOrderByCreatedAtDesc(UUID userId);
     Optional<Document> findByIdAndUserId(UUID id, UUID userId);
     long countByUserId(UUID userId);
+
+    @Query("SELECT d.version FROM Document d WHERE d.id = :id AND d.userId = :userId")
+    Optional<Long> findVersion(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    // Any upload, update or delete changes at least one of these.
+    @Query("""
+            SELECT count(d) AS count, coalesce(sum(d.version), 0) AS versionSum, max(d.createdAt) AS latestCreatedAt
+            FROM Document d
+            WHERE d.userId = :userId
+            """)
+    CollectionVersion findCollectionVersion(@Param("userId") UUID userId);
+
+    interface CollectionVersion {
+        long getCount();
+        long getVersionSum();
+        LocalDateTime getLatestCreatedAt();
+    }
 }
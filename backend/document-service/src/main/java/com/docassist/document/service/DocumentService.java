@@ -1,6 +1,7 @@
 package com.docassist.document.service;
 
 import com.docassist.common.exception.ResourceNotFoundException;
+import com.docassist.common.web.ETags;
 import com.docassist.document.dto.DocumentResponse;
 import com.docassist.document.dto.DocumentStatusResponse;
 import com.docassist.document.entity.Document;
@@ -95,6 +96,19 @@ public class DocumentService {
                 .toList();
     }
 
+    // Validators are read with an aggregate or single-column query, so a matching
+    // If-None-Match is answered without loading any entity.
+    public String getUserDocumentsETag(UUID userId) {
+        DocumentRepository.CollectionVersion version = documentRepository.findCollectionVersion(userId);
+        return ETags.of(version.getCount(), version.getVersionSum(), version.getLatestCreatedAt());
+    }
+
+    public String getDocumentETag(UUID documentId, UUID userId) {
+        long version = documentRepository.findVersion(documentId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
+        return ETags.of(documentId, version);
+    }
+
     public DocumentResponse getDocument(UUID documentId, UUID userId) {
         Document document = documentRepository.findByIdAndUserId(documentId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
@@ -106,4 +106,23 @@ class DocumentServiceTest {
 
         verify(documentRepository).delete(testDocument);
     }
+
+    @Test
+    void getDocumentETag_ChangesWithVersion() {
+        when(documentRepository.findVersion(documentId, userId)).thenReturn(Optional.of(1L), Optional.of(2L));
+
+        String first = documentService.getDocumentETag(documentId, userId);
+        String second = documentService.getDocumentETag(documentId, userId);
+
+        assertThat(first).startsWith("\"").endsWith("\"").isNotEqualTo(second);
+        verify(documentRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    @Test
+    void getDocumentETag_NotFound_ThrowsException() {
+        when(documentRepository.findVersion(documentId, userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> documentService.getDocumentETag(documentId, userId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
 }
@@ -60,8 +60,15 @@ export class AuthService {
   }
 
   logout(): void {
+    const token = this.getToken();
+    const refreshToken = localStorage.getItem(this.REFRESH_KEY);
     localStorage.removeItem(this.TOKEN_KEY);
     localStorage.removeItem(this.REFRESH_KEY);
+    if (token) {
+      // Revoke both tokens server-side; the local session ends whatever the outcome.
+      this.http.post('/api/auth/logout', { refreshToken }, { headers: { Authorization: `Bearer ${token}` } })
+        .subscribe({ error: () => {} });
+    }
     this.currentUser.set(null);
     this.router.navigate(['/login']);
   }
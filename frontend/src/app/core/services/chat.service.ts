@@ -1,6 +1,6 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { HttpClient, HttpEventType } from '@angular/common/http';
+import { Observable, defer, mergeMap } from 'rxjs';
 import { ApiResponse } from './auth.service';
 
 export interface ChatRequest {
@@ -12,14 +12,17 @@ export interface ChatRequest {
 export interface SourceChunk {
   chunkId: string;
   documentId: string;
-  content: string;
+  content?: string;
   score: number;
 }
 
-export interface ChatResponse {
-  sessionId: string;
-  answer: string;
-  sources: SourceChunk[];
+export interface ChatStreamEvent {
+  event: 'sources' | 'token' | 'done' | 'error';
+  sessionId?: string;
+  messageId?: string;
+  content?: string;
+  sources?: SourceChunk[];
+  promptTokens?: number;
 }
 
 export interface ChatSessionResponse {
@@ -38,23 +41,65 @@ export interface ChatMessageResponse {
   createdAt: string;
 }
 
+export interface PagedResponse<T> {
+  content: T[];
+  size: number;
+  totalElements: number;
+  totalPages: number;
+  last: boolean;
+  nextCursor?: string;
+}
+
 @Injectable({ providedIn: 'root' })
 export class ChatService {
   constructor(private http: HttpClient) {}
 
-  chat(request: ChatRequest): Observable<ApiResponse<ChatResponse>> {
-    return this.http.post<ApiResponse<ChatResponse>>('/api/ai/chat', request);
+  // Unsubscribing aborts the request, which cancels generation on the server.
+  chatStream(request: ChatRequest): Observable<ChatStreamEvent> {
+    return defer(() => {
+      let parsed = 0;
+      return this.http.post('/api/ai/chat/stream', request, {
+        headers: { Accept: 'text/event-stream' },
+        observe: 'events',
+        reportProgress: true,
+        responseType: 'text'
+      }).pipe(
+        mergeMap(event => {
+          const text = event.type === HttpEventType.DownloadProgress ? event.partialText
+            : event.type === HttpEventType.Response ? event.body : null;
+          const end = text?.lastIndexOf('\n\n') ?? -1;
+          if (!text || end < parsed) return [];
+          const block = text.slice(parsed, end);
+          parsed = end + 2;
+          return parseEvents(block);
+        })
+      );
+    });
   }
 
-  getSessions(): Observable<ApiResponse<ChatSessionResponse[]>> {
-    return this.http.get<ApiResponse<ChatSessionResponse[]>>('/api/ai/sessions');
+  getSessions(cursor?: string): Observable<ApiResponse<PagedResponse<ChatSessionResponse>>> {
+    const params: Record<string, string> = cursor ? { cursor } : {};
+    return this.http.get<ApiResponse<PagedResponse<ChatSessionResponse>>>('/api/ai/sessions', { params });
   }
 
-  getSession(id: string): Observable<ApiResponse<ChatMessageResponse[]>> {
-    return this.http.get<ApiResponse<ChatMessageResponse[]>>(`/api/ai/sessions/${id}`);
+  getSession(id: string, cursor?: string): Observable<ApiResponse<PagedResponse<ChatMessageResponse>>> {
+    const params: Record<string, string> = cursor ? { cursor } : {};
+    return this.http.get<ApiResponse<PagedResponse<ChatMessageResponse>>>(`/api/ai/sessions/${id}`, { params });
   }
 
   deleteSession(id: string): Observable<ApiResponse<void>> {
     return this.http.delete<ApiResponse<void>>(`/api/ai/sessions/${id}`);
   }
 }
+
+function parseEvents(block: string): ChatStreamEvent[] {
+  return block.split('\n\n').filter(raw => raw.trim()).map(raw => {
+    let event = 'message';
+    const data: string[] = [];
+    for (const line of raw.split('\n')) {
+      if (line.startsWith('event:')) event = line.slice(6).trim();
+      else if (line.startsWith('data:')) data.push(line.slice(5));
+    }
+    return { ...JSON.parse(data.join('\n')), event } as ChatStreamEvent;
+  });
+}
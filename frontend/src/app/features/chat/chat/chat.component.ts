@@ -1,4 +1,5 @@
-import { Component, inject, signal, OnInit, ViewChild, ElementRef } from '@angular/core';
+import { Component, inject, signal, OnInit, ViewChild, ElementRef, DestroyRef } from '@angular/core';
+import { takeUntilDestroyed } from '@angular/core/rxjs-interop';
 import { FormsModule } from '@angular/forms';
 import { ChatService, ChatMessageResponse, ChatSessionResponse } from '../../../core/services/chat.service';
 import { MessageBubbleComponent } from '../message-bubble/message-bubble.component';
@@ -40,6 +41,9 @@ import { DatePipe } from '@angular/common';
             <p class="no-sessions">No sessions yet. Ask a question to start.</p>
           }
         </mat-nav-list>
+        @if (sessionsCursor()) {
+          <button mat-button class="load-more" (click)="loadMoreSessions()">Load more</button>
+        }
       </aside>
 
       <main class="chat-main">
@@ -47,6 +51,9 @@ import { DatePipe } from '@angular/common';
           @if (loadingMessages()) {
             <app-loading-spinner />
           } @else {
+            @if (messagesCursor()) {
+              <button mat-button class="load-more" (click)="loadOlderMessages()">Load older messages</button>
+            }
             @for (msg of messages(); track msg.id) {
               <app-message-bubble [message]="msg" />
             }
@@ -79,6 +86,7 @@ import { DatePipe } from '@angular/common';
     }
     .panel-header { display: flex; align-items: center; justify-content: space-between; padding: 16px; }
     .panel-header h3 { margin: 0; }
+    .load-more { display: block; margin: 8px auto; }
     .no-sessions { color: var(--text-secondary); text-align: center; padding: 24px; font-size: 0.9rem; }
     .active { background: var(--bg-dark) !important; }
     .chat-main { flex: 1; display: flex; flex-direction: column; }
@@ -99,9 +107,12 @@ export class ChatComponent implements OnInit {
 
   private chatService = inject(ChatService);
   private snackBar = inject(MatSnackBar);
+  private destroyRef = inject(DestroyRef);
 
   sessions = signal<ChatSessionResponse[]>([]);
+  sessionsCursor = signal<string | null>(null);
   messages = signal<ChatMessageResponse[]>([]);
+  messagesCursor = signal<string | null>(null);
   activeSessionId = signal<string | null>(null);
   question = signal('');
   sending = signal(false);
@@ -113,7 +124,19 @@ export class ChatComponent implements OnInit {
 
   loadSessions(): void {
     this.chatService.getSessions().subscribe({
-      next: res => this.sessions.set(res.data)
+      next: res => {
+        this.sessions.set(res.data.content);
+        this.sessionsCursor.set(res.data.nextCursor ?? null);
+      }
+    });
+  }
+
+  loadMoreSessions(): void {
+    this.chatService.getSessions(this.sessionsCursor()!).subscribe({
+      next: res => {
+        this.sessions.update(sessions => [...sessions, ...res.data.content]);
+        this.sessionsCursor.set(res.data.nextCursor ?? null);
+      }
     });
   }
 
@@ -122,7 +145,8 @@ export class ChatComponent implements OnInit {
     this.loadingMessages.set(true);
     this.chatService.getSession(sessionId).subscribe({
       next: res => {
-        this.messages.set(res.data);
+        this.messages.set(res.data.content);
+        this.messagesCursor.set(res.data.nextCursor ?? null);
         this.loadingMessages.set(false);
         this.scrollToBottom();
       },
@@ -130,9 +154,23 @@ export class ChatComponent implements OnInit {
     });
   }
 
+  // Pages come back oldest-first, so each older page goes in front of what is shown.
+  loadOlderMessages(): void {
+    const sessionId = this.activeSessionId();
+    if (!sessionId) return;
+    this.chatService.getSession(sessionId, this.messagesCursor()!).subscribe({
+      next: res => {
+        if (this.activeSessionId() !== sessionId) return;
+        this.messages.update(msgs => [...res.data.content, ...msgs]);
+        this.messagesCursor.set(res.data.nextCursor ?? null);
+      }
+    });
+  }
+
   newSession(): void {
     this.activeSessionId.set(null);
     this.messages.set([]);
+    this.messagesCursor.set(null);
   }
 
   sendMessage(): void {
@@ -151,27 +189,41 @@ export class ChatComponent implements OnInit {
     this.question.set('');
     this.scrollToBottom();
 
-    this.chatService.chat({
+    const answerId = crypto.randomUUID();
+    this.chatService.chatStream({
       question: q,
       sessionId: this.activeSessionId() ?? undefined
-    }).subscribe({
-      next: res => {
-        this.activeSessionId.set(res.data.sessionId);
-        const assistantMsg: ChatMessageResponse = {
-          id: crypto.randomUUID(),
-          role: 'ASSISTANT',
-          content: res.data.answer,
-          sourceChunks: res.data.sources,
-          createdAt: new Date().toISOString()
-        };
-        this.messages.update(msgs => [...msgs, assistantMsg]);
-        this.sending.set(false);
-        this.loadSessions();
-        this.scrollToBottom();
+    }).pipe(takeUntilDestroyed(this.destroyRef)).subscribe({
+      next: event => {
+        switch (event.event) {
+          case 'sources':
+            this.activeSessionId.set(event.sessionId!);
+            this.messages.update(msgs => [...msgs, {
+              id: answerId,
+              role: 'ASSISTANT',
+              content: '',
+              sourceChunks: event.sources ?? [],
+              createdAt: new Date().toISOString()
+            }]);
+            break;
+          case 'token':
+            this.messages.update(msgs => msgs.map(msg =>
+              msg.id === answerId ? { ...msg, content: msg.content + event.content } : msg));
+            this.scrollToBottom();
+            break;
+          case 'done':
+            this.sending.set(false);
+            this.loadSessions();
+            break;
+          case 'error':
+            this.sending.set(false);
+            this.snackBar.open(event.content || 'Failed to get response', 'Close', { duration: 3000 });
+            break;
+        }
       },
-      error: (err) => {
+      error: () => {
         this.sending.set(false);
-        this.snackBar.open(err.error?.message || 'Failed to get response', 'Close', { duration: 3000 });
+        this.snackBar.open('Failed to get response', 'Close', { duration: 3000 });
       }
     });
   }
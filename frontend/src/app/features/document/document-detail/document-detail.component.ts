@@ -1,4 +1,5 @@
-import { Component, inject, signal, OnInit } from '@angular/core';
+import { Component, inject, signal, OnInit, DestroyRef } from '@angular/core';
+import { takeUntilDestroyed } from '@angular/core/rxjs-interop';
 import { ActivatedRoute, Router } from '@angular/router';
 import { FormsModule } from '@angular/forms';
 import { DocumentService, DocumentResponse } from '../../../core/services/document.service';
@@ -102,6 +103,7 @@ export class DocumentDetailComponent implements OnInit {
   private router = inject(Router);
   private documentService = inject(DocumentService);
   private chatService = inject(ChatService);
+  private destroyRef = inject(DestroyRef);
   private snackBar = inject(MatSnackBar);
 
   document = signal<DocumentResponse | null>(null);
@@ -136,19 +138,33 @@ export class DocumentDetailComponent implements OnInit {
     this.messages.update(msgs => [...msgs, userMsg]);
     this.question.set('');
 
-    this.chatService.chat({
+    const answerId = crypto.randomUUID();
+    this.chatService.chatStream({
       question: q,
       documentId: this.document()!.id,
       sessionId: this.sessionId ?? undefined
-    }).subscribe({
-      next: res => {
-        this.sessionId = res.data.sessionId;
-        const assistantMsg: ChatMessageResponse = {
-          id: crypto.randomUUID(), role: 'ASSISTANT', content: res.data.answer,
-          sourceChunks: res.data.sources, createdAt: new Date().toISOString()
-        };
-        this.messages.update(msgs => [...msgs, assistantMsg]);
-        this.sending.set(false);
+    }).pipe(takeUntilDestroyed(this.destroyRef)).subscribe({
+      next: event => {
+        switch (event.event) {
+          case 'sources':
+            this.sessionId = event.sessionId!;
+            this.messages.update(msgs => [...msgs, {
+              id: answerId, role: 'ASSISTANT', content: '',
+              sourceChunks: event.sources ?? [], createdAt: new Date().toISOString()
+            }]);
+            break;
+          case 'token':
+            this.messages.update(msgs => msgs.map(msg =>
+              msg.id === answerId ? { ...msg, content: msg.content + event.content } : msg));
+            break;
+          case 'done':
+            this.sending.set(false);
+            break;
+          case 'error':
+            this.sending.set(false);
+            this.snackBar.open('Failed to get response', 'Close', { duration: 3000 });
+            break;
+        }
       },
       error: () => {
         this.sending.set(false);